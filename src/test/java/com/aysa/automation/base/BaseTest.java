@@ -2,27 +2,74 @@ package com.aysa.automation.base;
 
 import com.aysa.automation.config.AppConfig;
 import com.aysa.automation.config.CapabilitiesManager;
+import com.aysa.automation.images.DeviceImageSync;
+import com.aysa.automation.images.ImageStore;
+import com.aysa.automation.listeners.FailureClassifier;
+import com.aysa.automation.pages.Pages;
+import com.aysa.automation.utils.WaitUtils;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 public abstract class BaseTest {
 
     protected static final Logger logger = LoggerFactory.getLogger(BaseTest.class);
 
-    protected AndroidDriver driver;
-    protected WebDriverWait wait;
+    // Data-provider rows run on one thread per device, so each thread owns its own driver
+    private static final ThreadLocal<Device> device = new ThreadLocal<>();
+    private static final ThreadLocal<AndroidDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriverWait> wait = new ThreadLocal<>();
+
+    // Session creation backoff: 1s, 2s, 4s... capped at 16s, each with random jitter
+    private static final int MAX_SESSION_ATTEMPTS = 4;
+    private static final long BACKOFF_BASE_MILLIS = 1000;
+    private static final long BACKOFF_MAX_MILLIS = 16000;
+
+    // Creates and resets sessions for upcoming tests while the current ones finish
+    private static final ExecutorService sessionPreparer = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "session-preparer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected AppConfig config;
 
+    @BeforeSuite(alwaysRun = true)
+    public void setUpSuite() {
+        AppConfig suiteConfig = AppConfig.getInstance();
+        if (suiteConfig.isImageSyncEnabled()) {
+            logger.info("Syncing test images to {} device(s)", DevicePool.getInstance().size());
+            syncImages(suiteConfig);
+        }
+        // Devices without a session from the sync get one started now, while TestNG builds the cases
+        for (Device target : DevicePool.getInstance().getDevices()) {
+            if (target.getDriver() == null) {
+                prepareNextSession(suiteConfig, target, null, false);
+            }
+        }
+    }
+
     @BeforeClass(alwaysRun = true)
     public void setUpClass() {
         logger.info("Initializing test class setup");
@@ -31,21 +78,56 @@ public abstract class BaseTest {
 
     @BeforeMethod(alwaysRun = true)
     public void setUp() {
-        logger.info("Setting up Appium driver for test");
-        initializeDriver();
-        configureTimeouts();
+        device.set(DevicePool.getInstance().acquire());
+        try {
+            if (!(config.isSessionReuse() && reuseSession())) {
+                logger.info("Setting up Appium driver for test on {}", device.get());
+                initializeDriver();
+            }
+            device.get().setAppResetNeeded(false);
+        } catch (RuntimeException e) {
+            discardSession();
+            releaseDevice();
+            throw e;
+        }
     }
 
     @AfterMethod(alwaysRun = true)
-    public void tearDown() {
-        logger.info("Tearing down Appium driver");
-        if (driver != null) {
-            try {
-                driver.quit();
-            } catch (Exception e) {
-                logger.error("Error quitting driver: {}", e.getMessage());
+    public void tearDown(ITestResult result) {
+        if (!result.isSuccess() && device.get() != null) {
+            device.get().setAppResetNeeded(true);
+        }
+        if (config.isSessionReuse() && getDriver() != null && device.get() != null) {
+            // A failed case may have left the app mid-flow, so the app is reset for the
+            // next case; a session that no longer responds or hit an infrastructure
+            // failure is replaced instead, so a retry starts on a fresh one.
+            // Either happens in the background while this result is reported
+            if (!result.isSuccess()) {
+                boolean keep = true;
+                if (FailureClassifier.isInfrastructure(result.getThrowable())) {
+                    logger.warn("Infrastructure failure on {}, recreating the session for the next test",
+                            device.get());
+                    keep = false;
+                } else if (!isSessionHealthy()) {
+                    logger.warn("Session on {} is no longer usable, recreating it for the next test",
+                            device.get());
+                    keep = false;
+                }
+                prepareNextSession(config, device.get(), getDriver(), keep);
             }
+        } else if (device.get() != null) {
+            logger.info("Tearing down Appium driver on {}, preparing the next one", device.get());
+            prepareNextSession(config, device.get(), getDriver(), false);
         }
+        driver.remove();
+        wait.remove();
+        releaseDevice();
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        logger.info("Closing pooled Appium sessions");
+        DevicePool.getInstance().closeSessions();
     }
 
     @AfterClass(alwaysRun = true)
@@ -53,8 +135,102 @@ public abstract class BaseTest {
         logger.info("Test class teardown complete");
     }
 
+    /**
+     * Picks up the session the leased device kept from its previous test.
+     * Returns false when there is none or it could not be brought back to a clean app state.
+     */
+    private boolean reuseSession() {
+        AndroidDriver existing = device.get().getDriver();
+        if (existing == null) {
+            return false;
+        }
+        logger.info("Reusing Appium session on {}", device.get());
+        driver.set(existing);
+        wait.set(new WebDriverWait(existing, Duration.ofSeconds(config.getExplicitWait())));
+        if (device.get().isAppResetNeeded()) {
+            try {
+                resetApp();
+            } catch (Exception e) {
+                logger.warn("App reset failed on {}, recreating session: {}", device.get(), e.getMessage());
+                discardSession();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the session prepared in the background for this device, or opens one now
+     * if none was prepared or preparing it failed.
+     */
     private void initializeDriver() {
-        int maxRetries = 3;
+        AndroidDriver androidDriver = takePreparedSession(device.get());
+        if (androidDriver == null) {
+            androidDriver = createDriver(config, device.get());
+            // With noReset a new session finds the app where a failed case left it
+            if (device.get().isAppResetNeeded()) {
+                resetApp(config, androidDriver, device.get());
+            }
+        }
+        driver.set(androidDriver);
+        device.get().setDriver(androidDriver);
+        wait.set(new WebDriverWait(androidDriver, Duration.ofSeconds(config.getExplicitWait())));
+    }
+
+    private static AndroidDriver takePreparedSession(Device target) {
+        Future<AndroidDriver> pending = target.takePendingDriver();
+        if (pending == null) {
+            return null;
+        }
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.warn("Preparing a session on {} failed, opening one now: {}",
+                    target, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the device's next session ready in the background: the current session is
+     * kept (with the app reset if the last case failed) or quit and replaced by a new one.
+     * The device is left without a session until the next test takes the prepared one.
+     */
+    private static void prepareNextSession(AppConfig config, Device target, AndroidDriver current,
+            boolean keep) {
+        target.setDriver(null);
+        target.setPendingDriver(sessionPreparer.submit(() -> {
+            AndroidDriver next = keep ? current : null;
+            if (next != null && target.isAppResetNeeded()) {
+                try {
+                    resetApp(config, next, target);
+                } catch (Exception e) {
+                    logger.warn("App reset failed on {}, recreating session: {}", target, e.getMessage());
+                    next = null;
+                }
+            }
+            if (next == null) {
+                quitQuietly(current);
+                next = createDriver(config, target);
+                if (target.isAppResetNeeded()) {
+                    resetApp(config, next, target);
+                }
+            }
+            target.setAppResetNeeded(false);
+            return next;
+        }));
+    }
+
+    /**
+     * Opens a session on the given device with the configured timeouts applied, backing
+     * off exponentially with jitter between failed attempts so devices recovering at the
+     * same time don't retry in lockstep.
+     */
+    private static AndroidDriver createDriver(AppConfig config, Device target) {
+        int maxRetries = MAX_SESSION_ATTEMPTS;
         Exception lastException = null;
 
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
@@ -62,12 +238,12 @@ public abstract class BaseTest {
                 CapabilitiesManager capManager = new CapabilitiesManager();
                 URL appiumServerUrl = new URL(config.getAppiumServerUrl());
 
-                driver = new AndroidDriver(appiumServerUrl, capManager.getAndroidCapabilities());
-
-                wait = new WebDriverWait(driver, Duration.ofSeconds(config.getExplicitWait()));
+                AndroidDriver androidDriver = new AndroidDriver(appiumServerUrl,
+                        capManager.getAndroidCapabilities(target));
+                WaitUtils.setImplicitWait(androidDriver, Duration.ofSeconds(config.getImplicitWait()));
 
-                logger.info("Android driver initialized successfully");
-                return; // Success - exit the retry loop
+                logger.info("Android driver initialized successfully on {}", target);
+                return androidDriver;
             } catch (MalformedURLException e) {
                 logger.error("Invalid Appium server URL: {}", e.getMessage());
                 throw new RuntimeException("Failed to initialize driver", e);
@@ -76,9 +252,10 @@ public abstract class BaseTest {
                 logger.warn("Driver init attempt {}/{} failed: {}", attempt, maxRetries, e.getMessage());
                 if (attempt < maxRetries) {
                     try {
-                        Thread.sleep(2000); // Wait 2 seconds before retry
+                        Thread.sleep(backoffMillis(attempt));
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
+                        break;
                     }
                 }
             }
@@ -89,22 +266,112 @@ public abstract class BaseTest {
         throw new RuntimeException("Failed to initialize driver after retries", lastException);
     }
 
-    private void configureTimeouts() {
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(config.getImplicitWait()));
+    /**
+     * Returns a random delay between half and all of the exponential backoff for an attempt.
+     */
+    private static long backoffMillis(int attempt) {
+        long backoff = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << (attempt - 1));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /**
+     * Pushes new or changed test images to every pooled device in parallel.
+     * The sessions opened for syncing are kept for the first tests.
+     */
+    private static void syncImages(AppConfig config) {
+        DeviceImageSync sync = new DeviceImageSync(
+                ImageStore.open(Paths.get(config.getImageStorePath())), config.getGalleryImagePath());
+
+        List<Device> devices = DevicePool.getInstance().getDevices();
+        ExecutorService executor = Executors.newFixedThreadPool(devices.size());
+        List<Future<?>> pending = new ArrayList<>();
+        for (Device target : devices) {
+            pending.add(executor.submit(() -> {
+                AndroidDriver androidDriver = createDriver(config, target);
+                try {
+                    sync.sync(androidDriver, target.getUdid());
+                } finally {
+                    if (config.isSessionReuse()) {
+                        target.setDriver(androidDriver);
+                    } else {
+                        target.setPendingDriver(CompletableFuture.completedFuture(androidDriver));
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+
+        for (Future<?> result : pending) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Image sync failed: {}", e.getCause().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cheap liveness probe used after a failure to decide whether the session survived.
+     */
+    private boolean isSessionHealthy() {
+        try {
+            getDriver().getCurrentPackage();
+            return true;
+        } catch (Exception e) {
+            logger.debug("Session health check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void discardSession() {
+        quitQuietly(getDriver());
+        if (device.get() != null) {
+            device.get().setDriver(null);
+        }
+    }
+
+    private static void quitQuietly(AndroidDriver session) {
+        if (session != null) {
+            Pages.release(session);
+            WaitUtils.forget(session);
+            try {
+                session.quit();
+            } catch (Exception e) {
+                logger.error("Error quitting driver: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void releaseDevice() {
+        DevicePool.getInstance().release(device.get());
+        device.remove();
     }
 
     protected AndroidDriver getDriver() {
-        return driver;
+        return driver.get();
     }
 
     protected WebDriverWait getWait() {
-        return wait;
+        return wait.get();
+    }
+
+    protected Device getDevice() {
+        return device.get();
     }
 
     protected void resetApp() {
-        if (driver != null) {
-            driver.terminateApp(config.getAppPackage());
-            driver.activateApp(config.getAppPackage());
+        AndroidDriver current = getDriver();
+        if (current != null) {
+            resetApp(config, current, device.get());
         }
     }
+
+    private static void resetApp(AppConfig config, AndroidDriver session, Device target) {
+        logger.info("Resetting app state on {}", target);
+        session.terminateApp(config.getAppPackage());
+        session.activateApp(config.getAppPackage());
+    }
 }
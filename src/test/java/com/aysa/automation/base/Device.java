@@ -0,0 +1,69 @@
+package com.aysa.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+
+import java.util.concurrent.Future;
+
+/**
+ * A single emulator/device in the pool, bound to its own UiAutomator2 systemPort
+ * so several Appium sessions can run side by side on one server.
+ */
+public class Device {
+
+    private final String udid;
+    private final int systemPort;
+
+    // Session kept alive between tests when session.mode=reuse
+    private AndroidDriver driver;
+    private boolean appResetNeeded;
+
+    // Session being created or reset in the background for the next test on this device
+    private volatile Future<AndroidDriver> pendingDriver;
+
+    public Device(String udid, int systemPort) {
+        this.udid = udid;
+        this.systemPort = systemPort;
+    }
+
+    public String getUdid() {
+        return udid;
+    }
+
+    public int getSystemPort() {
+        return systemPort;
+    }
+
+    public AndroidDriver getDriver() {
+        return driver;
+    }
+
+    public void setDriver(AndroidDriver driver) {
+        this.driver = driver;
+    }
+
+    public void setPendingDriver(Future<AndroidDriver> pendingDriver) {
+        this.pendingDriver = pendingDriver;
+    }
+
+    /**
+     * Returns the session being prepared for this device, if any, and forgets it.
+     */
+    public Future<AndroidDriver> takePendingDriver() {
+        Future<AndroidDriver> pending = pendingDriver;
+        pendingDriver = null;
+        return pending;
+    }
+
+    public boolean isAppResetNeeded() {
+        return appResetNeeded;
+    }
+
+    public void setAppResetNeeded(boolean appResetNeeded) {
+        this.appResetNeeded = appResetNeeded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Device[udid=%s, systemPort=%d]", udid, systemPort);
+    }
+}
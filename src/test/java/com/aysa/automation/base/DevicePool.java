@@ -0,0 +1,110 @@
+package com.aysa.automation.base;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.pages.Pages;
+import com.aysa.automation.utils.WaitUtils;
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Pool of devices shared by all test threads.
+ *
+ * Each test leases a free device for its duration and hands it back afterwards.
+ * TestNG runs the data providers with one worker per device, and a worker pulls
+ * the next case as soon as it finishes its current one, so a slow device simply
+ * takes fewer cases instead of holding up the rest.
+ */
+public class DevicePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DevicePool.class);
+    private static DevicePool instance;
+
+    private final List<Device> devices;
+    private final BlockingQueue<Device> available;
+
+    private DevicePool(AppConfig config) {
+        List<Device> pool = new ArrayList<>();
+        int systemPort = config.getSystemPortBase();
+        for (String udid : config.getDeviceUdids()) {
+            pool.add(new Device(udid, systemPort++));
+        }
+        this.devices = Collections.unmodifiableList(pool);
+        this.available = new LinkedBlockingQueue<>(pool);
+        logger.info("Device pool initialized with {} device(s): {}", pool.size(), pool);
+    }
+
+    public static synchronized DevicePool getInstance() {
+        if (instance == null) {
+            instance = new DevicePool(AppConfig.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Leases a free device, blocking until one is handed back if all are busy.
+     */
+    public Device acquire() {
+        try {
+            Device device = available.take();
+            logger.debug("Leased {}", device);
+            return device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a free device", e);
+        }
+    }
+
+    public void release(Device device) {
+        if (device != null) {
+            logger.debug("Released {}", device);
+            available.offer(device);
+        }
+    }
+
+    /**
+     * Quits every session still held or being prepared by a pooled device.
+     */
+    public void closeSessions() {
+        for (Device device : devices) {
+            Future<AndroidDriver> pending = device.takePendingDriver();
+            if (pending != null) {
+                try {
+                    AndroidDriver session = pending.get();
+                    Pages.release(session);
+                    WaitUtils.forget(session);
+                    session.quit();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logger.error("Error quitting prepared session on {}: {}", device, e.getMessage());
+                }
+            }
+            if (device.getDriver() != null) {
+                Pages.release(device.getDriver());
+                WaitUtils.forget(device.getDriver());
+                try {
+                    device.getDriver().quit();
+                } catch (Exception e) {
+                    logger.error("Error quitting session on {}: {}", device, e.getMessage());
+                }
+                device.setDriver(null);
+            }
+        }
+    }
+
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    public int size() {
+        return devices.size();
+    }
+}
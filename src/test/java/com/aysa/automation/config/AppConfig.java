@@ -2,11 +2,17 @@ package com.aysa.automation.config;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class AppConfig {
 
     private static final Properties properties = new Properties();
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+)\\s*([hms]?)");
     private static AppConfig instance;
 
     private AppConfig() {
@@ -29,47 +35,197 @@ public class AppConfig {
         }
     }
 
+    /**
+     * Looks up a setting, letting a -D system property override the config file.
+     */
+    private String get(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
     public String getAppiumServerUrl() {
-        return properties.getProperty("appium.server.url", "http://127.0.0.1:4723");
+        return get("appium.server.url", "http://127.0.0.1:4723");
     }
 
     public String getAppPackage() {
-        return properties.getProperty("app.package", "com.visualdx.aysa");
+        return get("app.package", "com.visualdx.aysa");
     }
 
     public String getAppActivity() {
-        return properties.getProperty("app.activity");
+        return get("app.activity", null);
     }
 
     public String getPlatformName() {
-        return properties.getProperty("platform.name", "Android");
+        return get("platform.name", "Android");
     }
 
     public String getPlatformVersion() {
-        return properties.getProperty("platform.version", "13");
+        return get("platform.version", "13");
     }
 
     public String getDeviceName() {
-        return properties.getProperty("device.name", "emulator-5554");
+        return get("device.name", "emulator-5554");
     }
 
     public String getAutomationName() {
-        return properties.getProperty("automation.name", "UiAutomator2");
+        return get("automation.name", "UiAutomator2");
     }
 
     public int getImplicitWait() {
-        return Integer.parseInt(properties.getProperty("implicit.wait", "10"));
+        return Integer.parseInt(get("implicit.wait", "10"));
     }
 
     public int getExplicitWait() {
-        return Integer.parseInt(properties.getProperty("explicit.wait", "30"));
+        return Integer.parseInt(get("explicit.wait", "30"));
     }
 
     public int getPageLoadTimeout() {
-        return Integer.parseInt(properties.getProperty("page.load.timeout", "60"));
+        return Integer.parseInt(get("page.load.timeout", "60"));
     }
 
     public String getGalleryImagePath() {
-        return properties.getProperty("gallery.image.path", "/sdcard/Pictures/");
+        return get("gallery.image.path", "/sdcard/Pictures/");
+    }
+
+    /**
+     * Returns the UDIDs of all devices in the pool, falling back to device.name.
+     */
+    public List<String> getDeviceUdids() {
+        List<String> udids = new ArrayList<>();
+        for (String udid : get("device.udids", "").split(",")) {
+            if (!udid.trim().isEmpty()) {
+                udids.add(udid.trim());
+            }
+        }
+        if (udids.isEmpty()) {
+            udids.add(getDeviceName());
+        }
+        return udids;
+    }
+
+    public int getSystemPortBase() {
+        return Integer.parseInt(get("system.port.base", "8200"));
+    }
+
+    /**
+     * Returns true when one Appium session is kept alive across test cases
+     * (session.mode=reuse) instead of being created per test (session.mode=per-test).
+     */
+    public boolean isSessionReuse() {
+        return "reuse".equalsIgnoreCase(get("session.mode", "per-test"));
+    }
+
+    /**
+     * Returns true when the local corpus should be pushed to every device before the suite.
+     */
+    public boolean isImageSyncEnabled() {
+        return Boolean.parseBoolean(get("image.sync.enabled", "false"));
+    }
+
+    /**
+     * Returns true when cases whose image, answers, app version and expected result
+     * are unchanged replay their cached verdict (suite.incremental=true).
+     */
+    public boolean isIncrementalRun() {
+        return Boolean.parseBoolean(get("suite.incremental", "false"));
+    }
+
+    /**
+     * Returns true when an interrupted run is continued (suite.resume=true): cases already
+     * in the result log are not run again and the reports cover both runs.
+     */
+    public boolean isResumeRun() {
+        return Boolean.parseBoolean(get("suite.resume", "false"));
+    }
+
+    /**
+     * Returns true when cases run likeliest-failure first (suite.order=risk)
+     * instead of in file order (suite.order=file).
+     */
+    public boolean isRiskOrdered() {
+        return "risk".equalsIgnoreCase(get("suite.order", "file"));
+    }
+
+    /**
+     * Returns the wall-clock budget for a run (suite.budget, e.g. 20m or 1h30m), or null for no limit.
+     */
+    public Duration getSuiteBudget() {
+        String budget = get("suite.budget", "");
+        return budget.trim().isEmpty() ? null : parseDuration("suite.budget", budget);
+    }
+
+    /**
+     * Returns how often a case that failed for an infrastructure reason is re-run (suite.retries).
+     */
+    public int getInfrastructureRetries() {
+        return Integer.parseInt(get("suite.retries", "1"));
+    }
+
+    /**
+     * Returns the directory of the cross-run result history (see ResultHistory).
+     */
+    public String getResultHistoryPath() {
+        return get("result.history", "result-history");
+    }
+
+    /**
+     * Returns how many lookups per compiled locator are repeated with the original
+     * XPath to measure the speedup (locator.compare.samples; 0 disables).
+     */
+    public int getLocatorCompareSamples() {
+        return Integer.parseInt(get("locator.compare.samples", "3"));
+    }
+
+    /**
+     * Returns the root of the content-addressed test image store.
+     */
+    public String getImageStorePath() {
+        return get("image.store", "image-store");
+    }
+
+    /**
+     * Returns true when images are handed to the app by intent (image.delivery=intent)
+     * instead of being picked through the in-app picker (image.delivery=picker).
+     */
+    public boolean isIntentImageDelivery() {
+        return "intent".equalsIgnoreCase(get("image.delivery", "picker"));
+    }
+
+    public String getShareActivity() {
+        return get("app.share.activity", null);
+    }
+
+    /**
+     * Returns true when the questionnaire runs as one server-side driver script
+     * (questionnaire.mode=script) instead of client-driven steps (questionnaire.mode=client).
+     */
+    public boolean isScriptedQuestionnaire() {
+        return "script".equalsIgnoreCase(get("questionnaire.mode", "client"));
+    }
+
+    /**
+     * Parses durations such as "20m", "90s", "1h30m" or a bare number of minutes.
+     */
+    private static Duration parseDuration(String key, String value) {
+        Matcher matcher = DURATION_PART.matcher(value.trim().toLowerCase());
+        Duration duration = Duration.ZERO;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            long amount = Long.parseLong(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h":
+                    duration = duration.plusHours(amount);
+                    break;
+                case "s":
+                    duration = duration.plusSeconds(amount);
+                    break;
+                default:
+                    duration = duration.plusMinutes(amount);
+            }
+            end = matcher.end();
+        }
+        if (end == 0 || end != value.trim().length()) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+        return duration;
     }
 }
@@ -1,5 +1,6 @@
 package com.aysa.automation.config;
 
+import com.aysa.automation.base.Device;
 import io.appium.java_client.android.options.UiAutomator2Options;
 
 import java.time.Duration;
@@ -42,4 +43,15 @@ public class CapabilitiesManager {
 
         return options;
     }
+
+    /**
+     * Capabilities bound to one pooled device, so parallel sessions don't collide.
+     */
+    public UiAutomator2Options getAndroidCapabilities(Device device) {
+        UiAutomator2Options options = getAndroidCapabilities();
+        options.setDeviceName(device.getUdid());
+        options.setUdid(device.getUdid());
+        options.setSystemPort(device.getSystemPort());
+        return options;
+    }
 }
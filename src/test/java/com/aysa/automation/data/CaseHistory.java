@@ -0,0 +1,169 @@
+package com.aysa.automation.data;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.listeners.ResultHistory;
+import com.aysa.automation.listeners.ResultLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Past outcomes per case ("disease/name.jpg") and per image variation, read from
+ * the last {@value #HISTORY_RUNS} runs in the {@link ResultHistory}. Until that has
+ * a run, falls back to test-results.jsonl, or to test-results.txt when the log is
+ * empty (a new run truncates it before the data providers read the history).
+ * Replayed (cached) verdicts are ignored since they say nothing about how long
+ * the case takes on a device.
+ */
+public class CaseHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaseHistory.class);
+    private static final String RESULTS_FILE = "test-results.txt";
+    private static final int HISTORY_RUNS = 50;
+    private static final Pattern RESULT_LINE = Pattern.compile(
+            "\\[(PASS|FAIL)\\] \\S+ - TestCase\\[id=\\d+, folder=([^,]+), image=([^,\\]]+)");
+    private static final Pattern DURATION_LINE = Pattern.compile(
+            "Duration: (?:(\\d+)m (\\d+)s|(\\d+)\\.(\\d)s)");
+
+    private final Map<String, Stats> byCase = new HashMap<>();
+    private final Map<ImageVariation, Stats> byVariation = new HashMap<>();
+    private final Stats overall = new Stats();
+
+    /**
+     * Run count, failure count and total duration of a group of cases.
+     */
+    public static class Stats {
+        private int runs;
+        private int failures;
+        private long totalMillis;
+        private int timedRuns;
+
+        void add(boolean failed, long millis) {
+            runs++;
+            if (failed) {
+                failures++;
+            }
+            if (millis > 0) {
+                totalMillis += millis;
+                timedRuns++;
+            }
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * Returns the mean duration of timed runs, or -1 if none were timed.
+         */
+        public long getMeanMillis() {
+            return timedRuns > 0 ? totalMillis / timedRuns : -1;
+        }
+    }
+
+    public static CaseHistory load() {
+        CaseHistory history = new CaseHistory();
+        try {
+            ResultHistory.open(Paths.get(AppConfig.getInstance().getResultHistoryPath()))
+                    .forEach(HISTORY_RUNS, null, record -> {
+                        if (!"SKIP".equals(record.status)) {
+                            history.add(record.caseKey, "FAIL".equals(record.status), record.durationMs);
+                        }
+                    });
+            if (!history.isEmpty()) {
+                return history;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read result history: {}", e.getMessage());
+        }
+        if (Files.exists(Paths.get(ResultLog.FILE))) {
+            try {
+                ResultLog.forEach(Paths.get(ResultLog.FILE), entry -> {
+                    if (entry.folder != null && !entry.cached && !"SKIP".equals(entry.status)) {
+                        history.add(entry.folder + "/" + entry.image, "FAIL".equals(entry.status), entry.durationMs);
+                    }
+                });
+                if (!history.isEmpty()) {
+                    return history;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read {}: {}", ResultLog.FILE, e.getMessage());
+            }
+        }
+        File file = new File(RESULTS_FILE);
+        if (!file.exists()) {
+            return history;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String pendingCase = null;
+            boolean pendingFailed = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher result = RESULT_LINE.matcher(line);
+                if (result.find() && !line.endsWith("(cached)")) {
+                    if (pendingCase != null) {
+                        history.add(pendingCase, pendingFailed, 0);
+                    }
+                    pendingCase = result.group(2) + "/" + result.group(3);
+                    pendingFailed = "FAIL".equals(result.group(1));
+                    continue;
+                }
+                Matcher duration = DURATION_LINE.matcher(line);
+                if (pendingCase != null && duration.find()) {
+                    history.add(pendingCase, pendingFailed, parseMillis(duration));
+                    pendingCase = null;
+                }
+            }
+            if (pendingCase != null) {
+                history.add(pendingCase, pendingFailed, 0);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read {}: {}", RESULTS_FILE, e.getMessage());
+        }
+        return history;
+    }
+
+    void add(String caseKey, boolean failed, long millis) {
+        String imageName = caseKey.substring(caseKey.indexOf('/') + 1);
+        byCase.computeIfAbsent(caseKey, key -> new Stats()).add(failed, millis);
+        byVariation.computeIfAbsent(ImageVariation.fromImageName(imageName), key -> new Stats()).add(failed, millis);
+        overall.add(failed, millis);
+    }
+
+    public Stats forCase(String caseKey) {
+        return byCase.getOrDefault(caseKey, new Stats());
+    }
+
+    public Stats forVariation(ImageVariation variation) {
+        return byVariation.getOrDefault(variation, new Stats());
+    }
+
+    public Stats overall() {
+        return overall;
+    }
+
+    public boolean isEmpty() {
+        return overall.runs == 0;
+    }
+
+    private static long parseMillis(Matcher duration) {
+        if (duration.group(1) != null) {
+            return (Long.parseLong(duration.group(1)) * 60 + Long.parseLong(duration.group(2))) * 1000;
+        }
+        return Long.parseLong(duration.group(3)) * 1000 + Long.parseLong(duration.group(4)) * 100;
+    }
+}
@@ -0,0 +1,130 @@
+package com.aysa.automation.data;
+
+import com.aysa.automation.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders cases so the likeliest failures per second of device time run first,
+ * and optionally keeps only the cases that fit a wall-clock budget.
+ *
+ * Failure probability is the case's own history smoothed towards the failure
+ * rate of its image variation, so new images inherit their variation's risk.
+ * Durations fall back the same way, then to {@link #DEFAULT_DURATION}.
+ * With suite.budget set, cases are taken greedily by probability per second
+ * until the budget (times the number of devices) is used up. The budget covers
+ * the whole suite: every data provider draws from the same device time, in the
+ * order TestNG calls them, so a later provider gets whatever the earlier ones left.
+ */
+public class CaseScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaseScheduler.class);
+    private static final Duration DEFAULT_DURATION = Duration.ofSeconds(45);
+
+    // Weight of the variation-level prior, in pseudo-runs
+    private static final double PRIOR_WEIGHT = 2.0;
+
+    // Device time left in the suite budget, shared by all data providers; set on first use
+    private static AtomicLong suiteCapacity;
+
+    private final CaseHistory history;
+
+    public CaseScheduler(CaseHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Applies suite.order and suite.budget to the cases of one data provider.
+     */
+    public static List<TestData> schedule(List<TestData> cases) {
+        AppConfig config = AppConfig.getInstance();
+        if (!config.isRiskOrdered() && config.getSuiteBudget() == null) {
+            return cases;
+        }
+        CaseHistory history = CaseHistory.load();
+        if (history.isEmpty()) {
+            logger.info("No result history yet, keeping file order");
+        }
+        Duration budget = config.getSuiteBudget();
+        AtomicLong capacity = budget != null ? suiteCapacity(budget, config.getDeviceUdids().size()) : null;
+        return new CaseScheduler(history).schedule(cases, capacity);
+    }
+
+    private static synchronized AtomicLong suiteCapacity(Duration budget, int devices) {
+        if (suiteCapacity == null) {
+            suiteCapacity = new AtomicLong(budget.toMillis() * Math.max(1, devices));
+            logger.info("Suite budget {} on {} device(s)", budget, devices);
+        }
+        return suiteCapacity;
+    }
+
+    /**
+     * Orders the cases and, given the device time left (in ms), keeps the ones that fit,
+     * taking their expected time out of it.
+     */
+    public List<TestData> schedule(List<TestData> cases, AtomicLong capacity) {
+        Map<TestData, Double> probability = new HashMap<>();
+        Map<TestData, Long> duration = new HashMap<>();
+        for (TestData testData : cases) {
+            probability.put(testData, failureProbability(testData));
+            duration.put(testData, expectedMillis(testData));
+        }
+
+        List<TestData> ordered = new ArrayList<>(cases);
+        ordered.sort(Comparator.comparingDouble(
+                (TestData testData) -> probability.get(testData) / duration.get(testData)).reversed());
+        if (capacity == null) {
+            return ordered;
+        }
+
+        long used = 0;
+        long left;
+        List<TestData> selected = new ArrayList<>();
+        synchronized (capacity) {
+            for (TestData testData : ordered) {
+                if (used + duration.get(testData) <= capacity.get()) {
+                    selected.add(testData);
+                    used += duration.get(testData);
+                }
+            }
+            left = capacity.addAndGet(-used);
+        }
+        logger.info("Suite budget: running {} of {} case(s), ~{}s of device time, ~{}s left",
+                selected.size(), cases.size(), used / 1000, left / 1000);
+        return selected;
+    }
+
+    double failureProbability(TestData testData) {
+        CaseHistory.Stats own = history.forCase(caseKey(testData));
+        CaseHistory.Stats variation = history.forVariation(ImageVariation.fromImageName(testData.getImageName()));
+        CaseHistory.Stats overall = history.overall();
+
+        double overallRate = (overall.getFailures() + 1.0) / (overall.getRuns() + 2.0);
+        double variationRate = (variation.getFailures() + PRIOR_WEIGHT * overallRate)
+                / (variation.getRuns() + PRIOR_WEIGHT);
+        return (own.getFailures() + PRIOR_WEIGHT * variationRate) / (own.getRuns() + PRIOR_WEIGHT);
+    }
+
+    long expectedMillis(TestData testData) {
+        long millis = history.forCase(caseKey(testData)).getMeanMillis();
+        if (millis <= 0) {
+            millis = history.forVariation(ImageVariation.fromImageName(testData.getImageName())).getMeanMillis();
+        }
+        if (millis <= 0) {
+            millis = history.overall().getMeanMillis();
+        }
+        return millis > 0 ? millis : DEFAULT_DURATION.toMillis();
+    }
+
+    private static String caseKey(TestData testData) {
+        return testData.getFolderName() + "/" + testData.getImageName();
+    }
+}
@@ -0,0 +1,88 @@
+package com.aysa.automation.data;
+
+import java.util.Arrays;
+
+/**
+ * Image variations generated for every original test image.
+ * Single source of truth for the file-name suffixes the data providers expect
+ * and the parameters the variation generator applies.
+ */
+public enum ImageVariation {
+    ORIGINAL("", "Original image", Kind.COPY),
+
+    // Lighting variations
+    LOW_LIGHT("_low_light", "Low lighting variation", Kind.LIGHTING, 0.5, 0.8),   // brightness, contrast
+    BRIGHT("_bright", "Bright lighting variation", Kind.LIGHTING, 1.5, 1.1),      // brightness, contrast
+
+    // Photo condition variations
+    DISTANCE("_distance", "Distance (zoomed out) variation", Kind.DISTANCE, 0.5), // scale
+    CROPPED("_cropped", "Cropped (zoomed in) variation", Kind.CROPPED, 0.6),      // crop ratio
+    ANGLED("_angled", "Angled photo variation", Kind.ANGLED, 15);                 // degrees
+
+    /**
+     * How a variation transforms its source image.
+     */
+    public enum Kind {
+        COPY,
+        LIGHTING,
+        DISTANCE,
+        CROPPED,
+        ANGLED
+    }
+
+    private final String suffix;
+    private final String description;
+    private final Kind kind;
+    private final double[] params;
+
+    ImageVariation(String suffix, String description, Kind kind, double... params) {
+        this.suffix = suffix;
+        this.description = description;
+        this.kind = kind;
+        this.params = params;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getParam(int index) {
+        return params[index];
+    }
+
+    /**
+     * Identifies the transformation, so changing a parameter invalidates generated files.
+     */
+    public String getSignature() {
+        return kind + Arrays.toString(params);
+    }
+
+    /**
+     * Returns the file name of this variation of an original, e.g. "3.jpg" -> "3_low_light.jpg".
+     */
+    public String fileName(String originalName) {
+        int dot = originalName.lastIndexOf('.');
+        return originalName.substring(0, dot) + suffix + originalName.substring(dot);
+    }
+
+    /**
+     * Returns the variation an image file name belongs to, e.g. "3_low_light.jpg" -> LOW_LIGHT.
+     */
+    public static ImageVariation fromImageName(String imageName) {
+        String baseName = imageName.replaceFirst("\\.[^.]+$", "");
+        for (ImageVariation variation : values()) {
+            if (variation != ORIGINAL && baseName.endsWith(variation.suffix)) {
+                return variation;
+            }
+        }
+        return ORIGINAL;
+    }
+}
@@ -0,0 +1,123 @@
+package com.aysa.automation.data;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.images.ImageStore;
+import com.aysa.automation.utils.AppInfo;
+import com.aysa.automation.utils.FileHashes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Verdicts of previous runs, keyed by everything that decides a case's outcome:
+ * the image content hash, the questionnaire answers, the installed app
+ * versionName/versionCode and the expected result.
+ *
+ * With suite.incremental=true a case whose key is unchanged replays its cached
+ * verdict instead of driving the device. Only verdicts reached by the result
+ * assertions are cached; infrastructure errors are always re-run.
+ */
+public class ResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+    private static final String CACHE_FILE = "result-cache.properties";
+    private static final String PASS = "PASS";
+    private static final String FAIL_PREFIX = "FAIL:";
+    private static final String UNKNOWN_VERSION = "unknown";
+
+    private static final Properties cache = loadCache();
+
+    private ResultCache() {
+    }
+
+    /**
+     * Returns the cache key for a case on the given app build, or null when the
+     * app version could not be read and results therefore can't be attributed to it.
+     */
+    public static String keyFor(TestData testData, AppInfo appInfo) {
+        if (UNKNOWN_VERSION.equals(appInfo.getVersionName()) && UNKNOWN_VERSION.equals(appInfo.getVersionCode())) {
+            return null;
+        }
+        ImageStore store = ImageStore.open(Paths.get(AppConfig.getInstance().getImageStorePath()));
+        String imageHash = store.hashOf(testData.getFolderName() + "/" + testData.getImageName());
+        if (imageHash == null) {
+            return null;
+        }
+        return FileHashes.sha256(String.join("|",
+                imageHash,
+                testData.getFlakyBumpy(),
+                testData.getProfileName(),
+                testData.getBodyCoverage(),
+                testData.getBodyLocation(),
+                testData.getDuration(),
+                testData.getItches(),
+                testData.getFever(),
+                appInfo.getVersionName(),
+                appInfo.getVersionCode(),
+                testData.getExpectedDisease(),
+                String.valueOf(testData.getExpectedResultType())));
+    }
+
+    public static boolean contains(String key) {
+        synchronized (cache) {
+            return cache.containsKey(key);
+        }
+    }
+
+    /**
+     * Re-applies a cached verdict: returns normally for a cached pass and throws
+     * the cached assertion failure otherwise.
+     */
+    public static void replay(String key) {
+        String verdict;
+        synchronized (cache) {
+            verdict = cache.getProperty(key);
+        }
+        if (verdict != null && verdict.startsWith(FAIL_PREFIX)) {
+            throw new AssertionError(verdict.substring(FAIL_PREFIX.length()) + " (cached verdict)");
+        }
+    }
+
+    public static void recordPass(String key) {
+        record(key, PASS);
+    }
+
+    public static void recordFailure(String key, String message) {
+        record(key, FAIL_PREFIX + message);
+    }
+
+    private static void record(String key, String verdict) {
+        synchronized (cache) {
+            if (verdict.equals(cache.getProperty(key))) {
+                return;
+            }
+            cache.setProperty(key, verdict);
+            try (OutputStream out = new FileOutputStream(CACHE_FILE)) {
+                cache.store(out, "Cached verdict per image|answers|versionName|versionCode|expected result hash");
+            } catch (IOException e) {
+                logger.warn("Could not persist result cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Properties loadCache() {
+        Properties properties = new Properties();
+        File file = new File(CACHE_FILE);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                logger.warn("Could not load result cache: {}", e.getMessage());
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,50 @@
+package com.aysa.automation.data;
+
+import com.aysa.automation.listeners.ResultLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cases finished by an earlier, interrupted run, identified as "testMethod:caseId".
+ *
+ * The checkpoint is the result log itself: every finished case is appended and
+ * synced to test-results.jsonl as it completes, and case IDs are stable across
+ * runs (see TestDataProvider#getBaseIdForDisease). Skipped cases don't count as
+ * finished and are run again.
+ */
+public final class SuiteCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuiteCheckpoint.class);
+
+    private static Set<String> completed;
+
+    private SuiteCheckpoint() {
+    }
+
+    public static synchronized Set<String> completed() {
+        if (completed == null) {
+            Set<String> keys = new HashSet<>();
+            try {
+                ResultLog.forEach(Paths.get(ResultLog.FILE), entry -> {
+                    if (entry.caseKey() != null && !"SKIP".equals(entry.status)) {
+                        keys.add(entry.caseKey());
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Could not read checkpoint from {}: {}", ResultLog.FILE, e.getMessage());
+            }
+            logger.info("Resuming: {} case(s) already finished", keys.size());
+            completed = keys;
+        }
+        return completed;
+    }
+
+    public static boolean isCompleted(String testMethod, int caseId) {
+        return completed().contains(testMethod + ":" + caseId);
+    }
+}
@@ -157,6 +157,15 @@ public class TestData {
         this.profileName = profileName;
     }
 
+    /**
+     * Returns the image variation, e.g. "low_light" for "3_low_light.jpg" or "original" for "3.jpg".
+     */
+    public String getVariation() {
+        ImageVariation variation = imageName == null
+                ? ImageVariation.ORIGINAL : ImageVariation.fromImageName(imageName);
+        return variation == ImageVariation.ORIGINAL ? "original" : variation.getSuffix().substring(1);
+    }
+
     @Override
     public String toString() {
         return String.format("TestCase[id=%d, folder=%s, image=%s, disease=%s]",
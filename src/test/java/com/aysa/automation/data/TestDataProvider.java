@@ -2,16 +2,23 @@ package com.aysa.automation.data;
 
 import org.testng.annotations.DataProvider;
 
-import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import com.aysa.automation.config.AppConfig;
 import com.aysa.automation.data.TestData.ExpectedResultType;
+import com.aysa.automation.images.ImageStore;
 
 /**
  * Provides test data for all skin condition images including variations.
- * Dynamically scans total_images/ folder for original images and their variations:
+ * Dynamically lists the original images and their variations held in the
+ * {@link ImageStore} (see {@link ImageVariation}):
  * - Lighting: low_light, bright
  * - Photo conditions: distance, cropped, angled
  *
@@ -19,15 +26,13 @@ import com.aysa.automation.data.TestData.ExpectedResultType;
  */
 public class TestDataProvider {
 
-    // Image source directory (with variations)
-    private static final String IMAGES_DIR = "total_images";
+    // Image store holding originals and variations
+    private static final ImageStore STORE = ImageStore.open(
+            Paths.get(AppConfig.getInstance().getImageStorePath()));
 
     // Disease folders
     private static final String[] DISEASES = {"melanoma", "eczema", "psoriasis", "fungal_infection"};
 
-    // Variation suffixes
-    private static final String[] VARIATIONS = {"", "_low_light", "_bright", "_distance", "_cropped", "_angled"};
-
     // Questionnaire configurations per disease type
     private static final QuestionnaireConfig ECZEMA_CONFIG = new QuestionnaireConfig(
             "YES", // flakyBumpy
@@ -65,77 +70,55 @@ public class TestDataProvider {
             "No" // fever
     );
 
-    @DataProvider(name = "diseaseTestData")
-    public static Object[][] getDiseaseTestData() {
-        return toData(generateAllTestData());
-    }
-
-    @DataProvider(name = "eczemaTestData")
-    public static Object[][] getEczemaTestData() {
-        return toData(generateDiseaseCases("eczema"));
+    @DataProvider(name = "diseaseTestData", parallel = true)
+    public static Iterator<Object[]> getDiseaseTestData(Method testMethod) {
+        return toData(Catalog.INSTANCE.all, testMethod);
     }
 
-    @DataProvider(name = "melanomaTestData")
-    public static Object[][] getMelanomaTestData() {
-        return toData(generateDiseaseCases("melanoma"));
+    @DataProvider(name = "eczemaTestData", parallel = true)
+    public static Iterator<Object[]> getEczemaTestData(Method testMethod) {
+        return toData(Catalog.INSTANCE.byDisease.get("eczema"), testMethod);
     }
 
-    @DataProvider(name = "psoriasisTestData")
-    public static Object[][] getPsoriasisTestData() {
-        return toData(generateDiseaseCases("psoriasis"));
+    @DataProvider(name = "melanomaTestData", parallel = true)
+    public static Iterator<Object[]> getMelanomaTestData(Method testMethod) {
+        return toData(Catalog.INSTANCE.byDisease.get("melanoma"), testMethod);
     }
 
-    @DataProvider(name = "fungalTestData")
-    public static Object[][] getFungalTestData() {
-        return toData(generateDiseaseCases("fungal_infection"));
+    @DataProvider(name = "psoriasisTestData", parallel = true)
+    public static Iterator<Object[]> getPsoriasisTestData(Method testMethod) {
+        return toData(Catalog.INSTANCE.byDisease.get("psoriasis"), testMethod);
     }
 
-    /**
-     * Generates test data for all images in total_images/ (originals + variations).
-     */
-    private static List<TestData> generateAllTestData() {
-        List<TestData> testDataList = new ArrayList<>();
-        for (String disease : DISEASES) {
-            testDataList.addAll(generateDiseaseCases(disease));
-        }
-        return testDataList;
+    @DataProvider(name = "fungalTestData", parallel = true)
+    public static Iterator<Object[]> getFungalTestData(Method testMethod) {
+        return toData(Catalog.INSTANCE.byDisease.get("fungal_infection"), testMethod);
     }
 
     /**
-     * Generates test cases for a specific disease by scanning the folder.
+     * Generates test cases for a specific disease from the store index.
      */
     private static List<TestData> generateDiseaseCases(String disease) {
         List<TestData> cases = new ArrayList<>();
         QuestionnaireConfig config = getConfigForDisease(disease);
         String expectedDisease = getExpectedDiseaseLabel(disease);
 
-        File diseaseDir = new File(IMAGES_DIR, disease);
-        if (!diseaseDir.exists() || !diseaseDir.isDirectory()) {
-            System.err.println("Warning: Disease directory not found: " + diseaseDir.getAbsolutePath());
+        List<String> imageNames = STORE.names(disease);
+        if (imageNames.isEmpty()) {
+            System.err.println("Warning: No images found for " + disease + " in: " + STORE.getRoot());
             return cases;
         }
 
-        // Get all jpg files in the directory
-        File[] imageFiles = diseaseDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".jpg"));
-        if (imageFiles == null || imageFiles.length == 0) {
-            System.err.println("Warning: No images found in: " + diseaseDir.getAbsolutePath());
-            return cases;
+        // Sort files for consistent ordering: base image number, then name
+        List<SortKey> keys = new ArrayList<>(imageNames.size());
+        for (String imageName : imageNames) {
+            keys.add(new SortKey(imageName));
         }
-
-        // Sort files for consistent ordering
-        Arrays.sort(imageFiles, (a, b) -> {
-            // Extract base number and variation for sorting
-            String nameA = a.getName().replace(".jpg", "");
-            String nameB = b.getName().replace(".jpg", "");
-            int numA = extractBaseNumber(nameA);
-            int numB = extractBaseNumber(nameB);
-            if (numA != numB) return Integer.compare(numA, numB);
-            return nameA.compareTo(nameB);
-        });
+        Collections.sort(keys);
 
         int id = getBaseIdForDisease(disease);
-        for (File imageFile : imageFiles) {
-            String imageName = imageFile.getName();
+        for (SortKey key : keys) {
+            String imageName = key.imageName;
             String description = generateDescription(disease, imageName);
             ExpectedResultType resultType = getExpectedResultType(disease, imageName);
 
@@ -171,22 +154,8 @@ public class TestDataProvider {
      * Generates a human-readable description for the test case.
      */
     private static String generateDescription(String disease, String imageName) {
-        String baseName = imageName.replace(".jpg", "");
         String diseaseLabel = disease.replace("_", " ");
-
-        if (baseName.contains("_low_light")) {
-            return diseaseLabel + " - Low lighting variation";
-        } else if (baseName.contains("_bright")) {
-            return diseaseLabel + " - Bright lighting variation";
-        } else if (baseName.contains("_distance")) {
-            return diseaseLabel + " - Distance (zoomed out) variation";
-        } else if (baseName.contains("_cropped")) {
-            return diseaseLabel + " - Cropped (zoomed in) variation";
-        } else if (baseName.contains("_angled")) {
-            return diseaseLabel + " - Angled photo variation";
-        } else {
-            return diseaseLabel + " - Original image";
-        }
+        return diseaseLabel + " - " + ImageVariation.fromImageName(imageName).getDescription();
     }
 
     /**
@@ -255,20 +224,78 @@ public class TestDataProvider {
         }
     }
 
-    private static Object[][] toData(List<TestData> testDataList) {
-        Object[][] data = new Object[testDataList.size()][1];
-        for (int i = 0; i < testDataList.size(); i++) {
-            data[i][0] = testDataList.get(i);
+    /**
+     * Applies the resume filter and the scheduler, then hands the cases to TestNG
+     * one row at a time instead of materializing an {@code Object[][]}.
+     */
+    private static Iterator<Object[]> toData(List<TestData> cases, Method testMethod) {
+        List<TestData> selected = cases;
+        if (AppConfig.getInstance().isResumeRun()) {
+            selected = new ArrayList<>(cases);
+            selected.removeIf(testData -> SuiteCheckpoint.isCompleted(testMethod.getName(), testData.getId()));
         }
-        return data;
+        Iterator<TestData> ordered = CaseScheduler.schedule(selected).iterator();
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return ordered.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[] {ordered.next()};
+            }
+        };
     }
 
     public static TestData getTestDataById(int id) {
-        List<TestData> allData = generateAllTestData();
-        return allData.stream()
-                .filter(td -> td.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return Catalog.INSTANCE.byId.get(id);
+    }
+
+    /**
+     * Every case in the store, built once on first use and shared by all providers.
+     * The store index is already in memory, so this is the only pass over the corpus.
+     */
+    private static final class Catalog {
+        static final Catalog INSTANCE = new Catalog();
+
+        final List<TestData> all;
+        final Map<String, List<TestData>> byDisease = new HashMap<>();
+        final Map<Integer, TestData> byId = new HashMap<>();
+
+        private Catalog() {
+            List<TestData> cases = new ArrayList<>();
+            for (String disease : DISEASES) {
+                List<TestData> diseaseCases = Collections.unmodifiableList(generateDiseaseCases(disease));
+                byDisease.put(disease, diseaseCases);
+                cases.addAll(diseaseCases);
+            }
+            for (TestData testData : cases) {
+                byId.put(testData.getId(), testData);
+            }
+            all = Collections.unmodifiableList(cases);
+        }
+    }
+
+    /**
+     * Image name with its base number parsed once, so sorting doesn't re-parse per comparison.
+     */
+    private static final class SortKey implements Comparable<SortKey> {
+        final String imageName;
+        final String baseName;
+        final int baseNumber;
+
+        SortKey(String imageName) {
+            this.imageName = imageName;
+            this.baseName = imageName.replace(".jpg", "");
+            this.baseNumber = extractBaseNumber(baseName);
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            if (baseNumber != other.baseNumber) return Integer.compare(baseNumber, other.baseNumber);
+            return baseName.compareTo(other.baseName);
+        }
     }
 
     /**
@@ -0,0 +1,566 @@
+package com.aysa.automation.fake;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an Appium server driving the Aysa app, for running the
+ * suite without a device. Speaks the subset of the W3C WebDriver / Appium HTTP
+ * protocol the framework uses (sessions, element finding by xpath, accessibility id,
+ * id and simple UiSelector expressions, clicks, page source, back, and the
+ * "mobile:" commands for app control) against a {@link FakeAysaApp} per device.
+ *
+ * Every command can be delayed by a fixed latency to model a real server, and
+ * command counts and server-side time are recorded for benchmarking. Optionally
+ * every Nth click crashes UiAutomator2, ending that session, to exercise recovery.
+ */
+public class FakeAppiumServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakeAppiumServer.class);
+    private static final Gson GSON = new Gson();
+    private static final Gson RESPONSE_GSON = new Gson().newBuilder().serializeNulls().create();
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final Pattern SESSION_PATH = Pattern.compile("/session/([^/]+)(/.*)?");
+    private static final String MEDIA_IMAGES = "content://media/external/images/media/";
+    // Extra types "mobile: startActivity" accepts; the driver adds the --e prefix itself
+    private static final Set<String> EXTRA_TYPES = new TreeSet<>(Arrays.asList(
+            "s", "sn", "z", "i", "l", "f", "u", "cn", "ia", "ial", "la", "lal", "fa", "fal", "sa", "sal"));
+    private static final Pattern ELEMENT_PATH = Pattern.compile("/element/([^/]+)(/.*)?");
+    private static final Pattern UI_SELECTOR = Pattern.compile(
+            "(text|textContains|textStartsWith|description|descriptionContains|descriptionStartsWith"
+                    + "|resourceId|className|packageName)\\(\"([^\"]*)\"\\)"
+                    + "|(clickable|enabled|checked|checkable|selected|focusable|focused|scrollable|longClickable)"
+                    + "\\((true|false)\\)");
+
+    private final Map<String, List<String>> albums;
+    private final long latencyMillis;
+    private final long analysisMillis;
+    private final HttpServer server;
+    private final Map<String, FakeAysaApp> sessions = new ConcurrentHashMap<>();
+    private final Map<String, FakeAysaApp> devices = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private final LongAdder serverNanos = new LongAdder();
+    private final AtomicLong clicks = new AtomicLong();
+    private final Map<String, Integer> mediaIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextMediaId = new AtomicInteger();
+    private volatile int crashEvery;
+
+    /**
+     * @param albums         image names per album shown in the picker
+     * @param latencyMillis  delay added to every command
+     * @param analysisMillis time between submitting the questionnaire and the results showing
+     */
+    public FakeAppiumServer(Map<String, List<String>> albums, long latencyMillis, long analysisMillis)
+            throws IOException {
+        this.albums = new TreeMap<>(albums);
+        this.latencyMillis = latencyMillis;
+        this.analysisMillis = analysisMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-appium");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        this.server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Fake Appium server listening on {}", getUrl());
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Makes every {@code clicks}-th element click crash the session it was sent to (0 disables).
+     */
+    public void setCrashEvery(int clicks) {
+        this.crashEvery = clicks;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Returns how often each command was called, keyed like "POST /element/:id/click".
+     */
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        commandCounts.forEach((command, count) -> counts.put(command, count.sum()));
+        return counts;
+    }
+
+    public long getCommandCount() {
+        return commandCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Returns the total time spent answering commands, including the simulated latency.
+     */
+    public long getServerMillis() {
+        return serverNanos.sum() / 1_000_000;
+    }
+
+    // ==================== HTTP ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath().replaceFirst("^/wd/hub", "");
+        JsonObject body = readBody(exchange);
+        String command = method + " " + normalize(path);
+        commandCounts.computeIfAbsent(command, key -> new LongAdder()).increment();
+
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            Object value = dispatch(method, path, body);
+            respond(exchange, 200, value);
+        } catch (WebDriverError e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.error);
+            error.put("message", e.getMessage());
+            error.put("stacktrace", "");
+            respond(exchange, e.status, error);
+        } catch (Exception e) {
+            logger.warn("Fake Appium server failed on {}: {}", command, e.toString());
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", "unknown error");
+            error.put("message", String.valueOf(e.getMessage()));
+            error.put("stacktrace", "");
+            respond(exchange, 500, error);
+        } finally {
+            serverNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private Object dispatch(String method, String path, JsonObject body) throws Exception {
+        if (path.equals("/status")) {
+            return Map.of("ready", true, "message", "Fake Appium server");
+        }
+        if (path.equals("/session") && method.equals("POST")) {
+            return newSession(body);
+        }
+        Matcher session = SESSION_PATH.matcher(path);
+        if (!session.matches()) {
+            throw new WebDriverError(404, "unknown command", "Unknown command: " + method + " " + path);
+        }
+        String sessionId = session.group(1);
+        String rest = session.group(2) == null ? "" : session.group(2);
+        if (rest.isEmpty() && method.equals("DELETE")) {
+            sessions.remove(sessionId);
+            return null;
+        }
+        FakeAysaApp app = sessions.get(sessionId);
+        if (app == null) {
+            throw new WebDriverError(404, "invalid session id", "No session " + sessionId);
+        }
+
+        switch (method + " " + rest) {
+            case "GET /source":
+                return app.getSource();
+            case "GET /context":
+                return "NATIVE_APP";
+            case "GET /contexts":
+                return List.of("NATIVE_APP");
+            case "POST /timeouts":
+            case "POST /appium/settings":
+                return null;
+            case "POST /element":
+                return findAll(app, null, body, true).get(0);
+            case "POST /elements":
+                return findAll(app, null, body, false);
+            case "POST /back":
+                app.back();
+                return null;
+            case "POST /execute/sync":
+                return executeMobile(app, body);
+            case "GET /appium/device/current_package":
+                return FakeAysaApp.PACKAGE;
+            case "POST /appium/device/terminate_app":
+                return true;
+            case "POST /appium/device/activate_app":
+                app.restart();
+                return null;
+            default:
+                break;
+        }
+
+        Matcher element = ELEMENT_PATH.matcher(rest);
+        if (element.matches() && crashEvery > 0 && method.equals("POST") && rest.endsWith("/click")
+                && clicks.incrementAndGet() % crashEvery == 0) {
+            sessions.remove(sessionId);
+            throw new WebDriverError(500, "unknown error",
+                    "The instrumentation process is not running (probably crashed)");
+        }
+        if (element.matches()) {
+            Element node = resolve(app, element.group(1));
+            String action = element.group(2) == null ? "" : element.group(2);
+            return elementCommand(app, node, method + " " + action, body);
+        }
+        throw new WebDriverError(404, "unknown command", "Unknown command: " + method + " " + path);
+    }
+
+    private Object newSession(JsonObject body) {
+        Map<String, Object> returned = new LinkedHashMap<>();
+        if (body.has("capabilities")) {
+            JsonObject requested = body.getAsJsonObject("capabilities");
+            if (requested.has("alwaysMatch")) {
+                copy(requested.getAsJsonObject("alwaysMatch"), returned);
+            }
+            if (requested.has("firstMatch") && requested.getAsJsonArray("firstMatch").size() > 0) {
+                copy(requested.getAsJsonArray("firstMatch").get(0).getAsJsonObject(), returned);
+            }
+        }
+        returned.put("platformName", "ANDROID");
+        String udid = returned.containsKey("appium:udid")
+                ? String.valueOf(returned.get("appium:udid"))
+                : String.valueOf(returned.getOrDefault("appium:deviceName", "fake-device"));
+        returned.put("appium:udid", udid);
+
+        // The app (and whether onboarding was done) lives on the device across sessions
+        FakeAysaApp app = devices.computeIfAbsent(udid, key -> new FakeAysaApp(albums, analysisMillis, true));
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, app);
+
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("sessionId", sessionId);
+        value.put("capabilities", returned);
+        return value;
+    }
+
+    private static void copy(JsonObject from, Map<String, Object> to) {
+        for (Map.Entry<String, JsonElement> entry : from.entrySet()) {
+            to.put(entry.getKey(), GSON.fromJson(entry.getValue(), Object.class));
+        }
+    }
+
+    private Object executeMobile(FakeAysaApp app, JsonObject body) {
+        String script = body.get("script").getAsString();
+        JsonObject args = body.has("args") && body.getAsJsonArray("args").size() > 0
+                && body.getAsJsonArray("args").get(0).isJsonObject()
+                ? body.getAsJsonArray("args").get(0).getAsJsonObject()
+                : new JsonObject();
+        switch (script) {
+            case "mobile: shell":
+                return shell(args);
+            case "mobile: getCurrentPackage":
+                return FakeAysaApp.PACKAGE;
+            case "mobile: terminateApp":
+                return true;
+            case "mobile: activateApp":
+                app.restart();
+                return null;
+            case "mobile: startActivity":
+                app.share(sharedPath(args));
+                return null;
+            case "mobile: scanMedia":
+                return null;
+            default:
+                throw new WebDriverError(404, "unknown method", "Unsupported script: " + script);
+        }
+    }
+
+    private Object shell(JsonObject args) {
+        String command = args.has("command") ? args.get("command").getAsString() : "";
+        if (command.equals("content")) {
+            // MediaStore lookup: hand out an id for the path the query matches on
+            Matcher where = Pattern.compile("_data LIKE '%([^']+)'").matcher(args.get("args").toString());
+            if (!where.find()) {
+                return "No result found.\n";
+            }
+            int id = mediaIds.computeIfAbsent(where.group(1), path -> nextMediaId.incrementAndGet());
+            return "Row: 0 _id=" + id + "\n";
+        }
+        return "Packages:\n  Package [" + FakeAysaApp.PACKAGE + "]\n    versionCode=1 minSdk=26\n"
+                + "    versionName=fake-1.0\n";
+    }
+
+    /**
+     * Returns the image path an ACTION_SEND intent shares, checking its extras the way the driver does.
+     */
+    private String sharedPath(JsonObject args) {
+        if (!args.has("extras")) {
+            return "";
+        }
+        String uri = "";
+        for (JsonElement extra : args.getAsJsonArray("extras")) {
+            JsonArray parts = extra.getAsJsonArray();
+            String type = parts.get(0).getAsString();
+            if (!EXTRA_TYPES.contains(type)) {
+                throw new WebDriverError(400, "invalid argument",
+                        "Unsupported intent extra type '" + type + "'. Supported types: " + EXTRA_TYPES);
+            }
+            if (parts.get(1).getAsString().equals("android.intent.extra.STREAM")) {
+                uri = parts.get(2).getAsString();
+            }
+        }
+        if (uri.startsWith(MEDIA_IMAGES)) {
+            int id = Integer.parseInt(uri.substring(MEDIA_IMAGES.length()));
+            return mediaIds.entrySet().stream()
+                    .filter(entry -> entry.getValue() == id)
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElseThrow(() -> new WebDriverError(500, "unknown error", "No media with id " + id));
+        }
+        return uri;
+    }
+
+    // ==================== Elements ====================
+
+    private Object elementCommand(FakeAysaApp app, Element node, String command, JsonObject body) throws Exception {
+        switch (command) {
+            case "POST /click":
+                app.click(node);
+                return null;
+            case "POST /value":
+            case "POST /clear":
+                return null;
+            case "GET /displayed":
+                return true;
+            case "GET /enabled":
+                return "true".equals(node.getAttribute("enabled"));
+            case "GET /selected":
+                return "true".equals(node.getAttribute("selected"));
+            case "GET /text":
+                return node.getAttribute("text");
+            case "GET /name":
+                return node.getAttribute("class");
+            case "GET /rect":
+                return rect(node.getAttribute("bounds"));
+            case "POST /element":
+                return findAll(app, node, body, true).get(0);
+            case "POST /elements":
+                return findAll(app, node, body, false);
+            default:
+                if (command.startsWith("GET /attribute/")) {
+                    String name = command.substring("GET /attribute/".length());
+                    if (name.equals("contentDescription")) {
+                        name = "content-desc";
+                    } else if (name.equals("resourceId")) {
+                        name = "resource-id";
+                    }
+                    return node.hasAttribute(name) ? node.getAttribute(name) : null;
+                }
+                throw new WebDriverError(404, "unknown command", "Unknown element command: " + command);
+        }
+    }
+
+    /**
+     * Finds elements on the current screen and returns their W3C references.
+     */
+    private List<Map<String, Object>> findAll(FakeAysaApp app, Element context, JsonObject body, boolean single)
+            throws XPathExpressionException {
+        String using = body.get("using").getAsString();
+        String value = body.get("value").getAsString();
+        List<Map<String, Object>> matches = new ArrayList<>();
+        synchronized (app) {
+            Document document = app.getDocument();
+            int generation = app.getGeneration();
+            Node root = context != null ? context : document;
+            List<Element> found = new ArrayList<>();
+            if (using.equals("xpath")) {
+                NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath()
+                        .evaluate(value, root, XPathConstants.NODESET);
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    if (nodes.item(i) instanceof Element) {
+                        found.add((Element) nodes.item(i));
+                    }
+                }
+            } else {
+                NodeList nodes = root instanceof Document
+                        ? ((Document) root).getElementsByTagName("*")
+                        : ((Element) root).getElementsByTagName("*");
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    Element candidate = (Element) nodes.item(i);
+                    if (matches(candidate, using, value)) {
+                        found.add(candidate);
+                    }
+                }
+            }
+            for (Element element : found) {
+                matches.add(reference(generation + "-" + app.indexOf(element)));
+            }
+        }
+        if (single && matches.isEmpty()) {
+            throw new WebDriverError(404, "no such element",
+                    "An element could not be located using " + using + "=" + value);
+        }
+        return matches;
+    }
+
+    private static boolean matches(Element element, String using, String value) {
+        switch (using) {
+            case "accessibility id":
+                return value.equals(element.getAttribute("content-desc"));
+            case "id":
+                String resourceId = element.getAttribute("resource-id");
+                return value.equals(resourceId) || resourceId.endsWith(":id/" + value);
+            case "class name":
+                return value.equals(element.getAttribute("class"));
+            case "-android uiautomator":
+                return matchesUiSelector(element, value);
+            default:
+                throw new WebDriverError(400, "invalid argument", "Unsupported locator strategy: " + using);
+        }
+    }
+
+    /**
+     * Supports plain UiSelector chains; UiScrollable expressions never match since nothing scrolls.
+     */
+    private static boolean matchesUiSelector(Element element, String selector) {
+        if (selector.contains("UiScrollable")) {
+            return false;
+        }
+        Matcher matcher = UI_SELECTOR.matcher(selector);
+        boolean any = false;
+        while (matcher.find()) {
+            any = true;
+            if (matcher.group(3) != null) {
+                String attribute = matcher.group(3).equals("longClickable") ? "long-clickable" : matcher.group(3);
+                String actual = element.hasAttribute(attribute) ? element.getAttribute(attribute) : "false";
+                if (!matcher.group(4).equals(actual)) {
+                    return false;
+                }
+                continue;
+            }
+            String expected = matcher.group(2);
+            boolean ok;
+            switch (matcher.group(1)) {
+                case "text": ok = expected.equals(element.getAttribute("text")); break;
+                case "textContains": ok = element.getAttribute("text").contains(expected); break;
+                case "textStartsWith": ok = element.getAttribute("text").startsWith(expected); break;
+                case "description": ok = expected.equals(element.getAttribute("content-desc")); break;
+                case "descriptionContains": ok = element.getAttribute("content-desc").contains(expected); break;
+                case "descriptionStartsWith": ok = element.getAttribute("content-desc").startsWith(expected); break;
+                case "resourceId": ok = expected.equals(element.getAttribute("resource-id")); break;
+                case "packageName": ok = expected.equals(element.getAttribute("package")); break;
+                default: ok = expected.equals(element.getAttribute("class")); break;
+            }
+            if (!ok) {
+                return false;
+            }
+        }
+        return any;
+    }
+
+    private static Map<String, Object> reference(String id) {
+        Map<String, Object> reference = new HashMap<>();
+        reference.put(ELEMENT_KEY, id);
+        reference.put("ELEMENT", id);
+        return reference;
+    }
+
+    private static Element resolve(FakeAysaApp app, String elementId) {
+        String[] parts = elementId.split("-");
+        synchronized (app) {
+            if (parts.length != 2 || Integer.parseInt(parts[0]) != app.getGeneration()) {
+                throw new WebDriverError(404, "stale element reference",
+                        "The element " + elementId + " is no longer attached to the page");
+            }
+            return app.element(Integer.parseInt(parts[1]));
+        }
+    }
+
+    private static Map<String, Object> rect(String bounds) {
+        Matcher matcher = Pattern.compile("\\[(\\d+),(\\d+)]\\[(\\d+),(\\d+)]").matcher(bounds);
+        Map<String, Object> rect = new LinkedHashMap<>();
+        if (matcher.matches()) {
+            int left = Integer.parseInt(matcher.group(1));
+            int top = Integer.parseInt(matcher.group(2));
+            rect.put("x", left);
+            rect.put("y", top);
+            rect.put("width", Integer.parseInt(matcher.group(3)) - left);
+            rect.put("height", Integer.parseInt(matcher.group(4)) - top);
+        }
+        return rect;
+    }
+
+    // ==================== Plumbing ====================
+
+    private static String normalize(String path) {
+        String command = path.replaceFirst("^/session/[^/]+", "")
+                .replaceAll("/element/[^/]+", "/element/:id")
+                .replaceFirst("/attribute/.*", "/attribute/:name");
+        return command.isEmpty() ? "/session" : command;
+    }
+
+    private static JsonObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readAllBytes();
+            if (bytes.length == 0) {
+                return new JsonObject();
+            }
+            JsonElement parsed = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+            return parsed.isJsonObject() ? parsed.getAsJsonObject() : new JsonObject();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object value) throws IOException {
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("value", value);
+        byte[] bytes = RESPONSE_GSON.toJson(envelope).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A W3C error response.
+     */
+    private static class WebDriverError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+        final String error;
+
+        WebDriverError(int status, String error, String message) {
+            super(message);
+            this.status = status;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.aysa.automation.fake;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Screen model of the Aysa app for {@link FakeAppiumServer}: the cases list, camera,
+ * image picker, questionnaire and results screens, with the accessibility ids,
+ * resource-ids and texts the page objects look for.
+ *
+ * Each screen is rendered as a UiAutomator2-style page source. Clicks move between
+ * screens; every change bumps the generation so elements found earlier go stale,
+ * as they would on a device. The "analysis" always finds the disease of the
+ * selected image's folder, except for clear-skin psoriasis/1 images.
+ */
+class FakeAysaApp {
+
+    static final String PACKAGE = "com.visualdx.aysa";
+
+    private static final List<String> PROFILES = Collections.singletonList("test");
+    private static final List<String> COVERAGES = Arrays.asList("Single Lesion", "Limited Area", "Widespread");
+    private static final List<String> BODY_LOCATIONS = Arrays.asList(
+            "arm-lower-right", "arm-lower-left", "arm-upper-right", "arm-upper-left", "chest", "back");
+    private static final List<String> DURATIONS = Arrays.asList(
+            "Minutes to Hours", "Days to Weeks", "Weeks to Months", "Months to Years", "Recurring Episodes");
+    private static final Map<String, String> DISEASE_LABELS = Map.of(
+            "eczema", "Eczema",
+            "melanoma", "Melanoma",
+            "psoriasis", "Psoriasis",
+            "fungal_infection", "Fungal Infection");
+
+    enum Screen {
+        ONBOARDING, CASES, CAMERA, PICKER, ALBUMS, PREVIEW, FLAKY_BUMPY, PROFILE, COVERAGE,
+        BODY, DURATION, ITCHES, FEVER, SUBMIT, ANALYZING, RESULTS
+    }
+
+    private final Map<String, List<String>> albums;
+    private final long analysisMillis;
+
+    private Screen screen;
+    private String album;
+    private String image;
+    private boolean bodyZoomed;
+    private boolean bodySelected;
+    private long resultsReadyAt;
+
+    private int generation;
+    private String source;
+    private Document document;
+    private List<Element> elements;
+
+    /**
+     * @param albums         image names per album (disease folder)
+     * @param analysisMillis how long the analysis spinner shows before the results
+     * @param onboarding     whether the first launch shows the onboarding screen
+     */
+    FakeAysaApp(Map<String, List<String>> albums, long analysisMillis, boolean onboarding) {
+        this.albums = albums;
+        this.analysisMillis = analysisMillis;
+        show(onboarding ? Screen.ONBOARDING : Screen.CASES);
+    }
+
+    // ==================== Queries ====================
+
+    synchronized int getGeneration() {
+        advanceTime();
+        return generation;
+    }
+
+    synchronized String getSource() {
+        advanceTime();
+        return source;
+    }
+
+    /**
+     * Returns the parsed current screen. Callers must hold the app's lock while reading it.
+     */
+    synchronized Document getDocument() {
+        advanceTime();
+        return document;
+    }
+
+    /**
+     * Returns the element with the given document-order index in the current generation.
+     */
+    synchronized Element element(int index) {
+        return elements.get(index);
+    }
+
+    synchronized int indexOf(Element element) {
+        return elements.indexOf(element);
+    }
+
+    synchronized Screen getScreen() {
+        advanceTime();
+        return screen;
+    }
+
+    // ==================== Interaction ====================
+
+    synchronized void click(Element element) {
+        advanceTime();
+        String desc = element.getAttribute("content-desc");
+        String text = element.getAttribute("text");
+        String id = element.getAttribute("resource-id");
+        if (!"true".equals(element.getAttribute("enabled"))) {
+            return;
+        }
+        switch (screen) {
+            case ONBOARDING:
+                if ("getStarted".equals(desc)) {
+                    show(Screen.CASES);
+                }
+                break;
+            case CASES:
+                if ("new case".equals(desc)) {
+                    show(Screen.CAMERA);
+                }
+                break;
+            case CAMERA:
+                if ("selectImageButton".equals(desc)) {
+                    album = null;
+                    show(Screen.PICKER);
+                }
+                break;
+            case PICKER:
+                if ("vdxAlbumSelect".equals(desc)) {
+                    show(Screen.ALBUMS);
+                } else if (album != null && albums.get(album).contains(desc)) {
+                    image = desc;
+                    show(Screen.PREVIEW);
+                }
+                break;
+            case ALBUMS:
+                if (albums.containsKey(text)) {
+                    album = text;
+                    show(Screen.PICKER);
+                }
+                break;
+            case PREVIEW:
+                if ("USE THIS PHOTO".equals(text)) {
+                    show(Screen.FLAKY_BUMPY);
+                }
+                break;
+            case FLAKY_BUMPY:
+                if ("YES".equals(text) || "NO".equals(text)) {
+                    show(Screen.PROFILE);
+                }
+                break;
+            case PROFILE:
+                if (PROFILES.contains(desc)) {
+                    show(Screen.COVERAGE);
+                }
+                break;
+            case COVERAGE:
+                if (COVERAGES.contains(text)) {
+                    bodyZoomed = false;
+                    bodySelected = false;
+                    show(Screen.BODY);
+                }
+                break;
+            case BODY:
+                if (BODY_LOCATIONS.contains(desc)) {
+                    // First tap zooms into the region, second tap selects it
+                    if (bodyZoomed) {
+                        bodySelected = true;
+                    }
+                    bodyZoomed = true;
+                    show(Screen.BODY);
+                } else if ("CONTINUE".equals(text)) {
+                    show(Screen.DURATION);
+                }
+                break;
+            case DURATION:
+                if (DURATIONS.contains(desc)) {
+                    show(Screen.ITCHES);
+                }
+                break;
+            case ITCHES:
+                if ("Yes".equals(desc) || "No".equals(desc)) {
+                    show(Screen.FEVER);
+                }
+                break;
+            case FEVER:
+                if ("Yes".equals(desc) || "No".equals(desc)) {
+                    show(Screen.SUBMIT);
+                }
+                break;
+            case SUBMIT:
+                if ("CONTINUE".equals(text)) {
+                    resultsReadyAt = System.currentTimeMillis() + analysisMillis;
+                    show(Screen.ANALYZING);
+                    advanceTime();
+                }
+                break;
+            case RESULTS:
+                if ((PACKAGE + ":id/action_done").equals(id)) {
+                    show(Screen.CASES);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    synchronized void back() {
+        advanceTime();
+        if (screen != Screen.CASES && screen != Screen.ONBOARDING) {
+            show(Screen.CASES);
+        }
+    }
+
+    /**
+     * Restarts the app on its cases screen, as terminateApp + activateApp would.
+     */
+    synchronized void restart() {
+        show(Screen.CASES);
+    }
+
+    /**
+     * Opens the photo preview for an image handed over by a share intent.
+     */
+    synchronized void share(String imagePath) {
+        String[] parts = imagePath.split("/");
+        if (parts.length >= 2) {
+            album = parts[parts.length - 2];
+            image = parts[parts.length - 1];
+        }
+        show(Screen.PREVIEW);
+    }
+
+    // ==================== Rendering ====================
+
+    private void advanceTime() {
+        if (screen == Screen.ANALYZING && System.currentTimeMillis() >= resultsReadyAt) {
+            show(Screen.RESULTS);
+        }
+    }
+
+    private void show(Screen next) {
+        screen = next;
+        generation++;
+        source = render();
+        document = parseSource(source);
+        NodeList nodes = document.getElementsByTagName("*");
+        List<Element> list = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            list.add((Element) nodes.item(i));
+        }
+        elements = list;
+    }
+
+    private String render() {
+        Page page = new Page();
+        switch (screen) {
+            case ONBOARDING:
+                page.text("Welcome to Aysa", "");
+                page.button("I UNDERSTAND. LET'S GET STARTED", "getStarted", "");
+                break;
+            case CASES:
+                page.text("My Cases", "");
+                page.button("Start a new case", "new case", "");
+                break;
+            case CAMERA:
+                page.view("android.view.View", "", "camera_preview", false);
+                page.button("", "selectImageButton", "");
+                break;
+            case PICKER:
+                page.open("android.widget.Spinner", "", "vdxAlbumSelect", "gallery_spinner", true);
+                page.text(album != null ? album : "Recent", "");
+                page.close("android.widget.Spinner");
+                page.open("androidx.recyclerview.widget.RecyclerView", "", "", "image_recycler_view", false);
+                if (album != null) {
+                    for (String name : albums.get(album)) {
+                        page.view("android.widget.ImageView", name, "image", true);
+                    }
+                }
+                page.close("androidx.recyclerview.widget.RecyclerView");
+                break;
+            case ALBUMS:
+                page.open("android.widget.ListView", "", "", "", false);
+                for (String name : albums.keySet()) {
+                    page.clickableText(name, "");
+                }
+                page.close("android.widget.ListView");
+                break;
+            case PREVIEW:
+                page.view("android.widget.ImageView", image, "preview_image", false);
+                page.button("USE THIS PHOTO", "", "");
+                break;
+            case FLAKY_BUMPY:
+                page.text("Is the skin flaky or bumpy?", "");
+                page.button("YES", "", "");
+                page.button("NO", "", "");
+                break;
+            case PROFILE:
+                page.text("Who is this case for?", "");
+                for (String profile : PROFILES) {
+                    page.view("android.view.ViewGroup", profile, "", true);
+                }
+                break;
+            case COVERAGE:
+                page.text("How much of the body is affected?", "");
+                for (String coverage : COVERAGES) {
+                    page.clickableText(coverage, "");
+                }
+                break;
+            case BODY:
+                page.text(bodyZoomed ? "Tap to select the location" : "Where is it?", "");
+                for (String location : BODY_LOCATIONS) {
+                    page.view("android.view.View", location, bodySelected ? "selected_part" : "", true);
+                }
+                page.button("CONTINUE", "", "", bodySelected);
+                break;
+            case DURATION:
+                page.text("How long has it been present?", "");
+                for (String duration : DURATIONS) {
+                    page.view("android.view.ViewGroup", duration, "", true);
+                }
+                break;
+            case ITCHES:
+            case FEVER:
+                page.text(screen == Screen.ITCHES ? "Does it itch?" : "Do you have a fever?", "");
+                page.button("Yes", "Yes", "");
+                page.button("No", "No", "");
+                break;
+            case SUBMIT:
+                page.text("Ready to analyze", "");
+                page.button("CONTINUE", "", "");
+                break;
+            case ANALYZING:
+                page.view("android.widget.ProgressBar", "", "progress", false);
+                break;
+            case RESULTS:
+                page.text("Results", "");
+                page.button("DONE", "", "action_done");
+                page.open("androidx.recyclerview.widget.RecyclerView", "", "", "recycler_view", false);
+                for (String disease : diagnose()) {
+                    page.open("android.view.ViewGroup", "", disease, "", true);
+                    page.text(disease, "title_text");
+                    page.close("android.view.ViewGroup");
+                }
+                page.close("androidx.recyclerview.widget.RecyclerView");
+                break;
+            default:
+                break;
+        }
+        return page.toString();
+    }
+
+    private List<String> diagnose() {
+        String label = DISEASE_LABELS.get(album);
+        boolean clearSkin = "psoriasis".equals(album) && image != null && image.matches("1(_.*)?\\.jpg");
+        if (label == null || clearSkin) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(label, "Contact Dermatitis");
+    }
+
+    private static Document parseSource(String source) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new InputSource(new StringReader(source)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Fake app rendered invalid page source", e);
+        }
+    }
+
+    /**
+     * Builds a UiAutomator2-style hierarchy inside an app frame.
+     */
+    private static class Page {
+        private final StringBuilder xml = new StringBuilder();
+        private int top = 200;
+
+        Page() {
+            xml.append("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>")
+                    .append("<hierarchy index=\"0\" class=\"hierarchy\" rotation=\"0\" width=\"1080\" height=\"2400\">")
+                    .append(node("android.widget.FrameLayout", "", "", "", false, true, false, 0, 2400)).append('>');
+        }
+
+        void text(String text, String resourceId) {
+            xml.append(node("android.widget.TextView", text, "", resourceId, false, true, false, 120, 0)).append("/>");
+        }
+
+        void clickableText(String text, String resourceId) {
+            xml.append(node("android.widget.TextView", text, "", resourceId, true, true, false, 120, 0)).append("/>");
+        }
+
+        void button(String text, String desc, String resourceId) {
+            button(text, desc, resourceId, true);
+        }
+
+        void button(String text, String desc, String resourceId, boolean enabled) {
+            xml.append(node("android.widget.Button", text, desc, resourceId, true, enabled, false, 140, 0)).append("/>");
+        }
+
+        void view(String className, String desc, String resourceId, boolean clickable) {
+            xml.append(node(className, "", desc, resourceId, clickable, true, false, 160, 0)).append("/>");
+        }
+
+        void open(String className, String text, String desc, String resourceId, boolean clickable) {
+            xml.append(node(className, text, desc, resourceId, clickable, true, false, 200, 0)).append('>');
+        }
+
+        void close(String className) {
+            xml.append("</").append(className).append('>');
+        }
+
+        private String node(String className, String text, String desc, String resourceId,
+                boolean clickable, boolean enabled, boolean selected, int height, int fixedBottom) {
+            int bottom = fixedBottom > 0 ? fixedBottom : top + height;
+            int nodeTop = fixedBottom > 0 ? 0 : top;
+            if (fixedBottom == 0) {
+                top = Math.min(bottom + 10, 2300);
+            }
+            return "<" + className
+                    + " index=\"0\" package=\"" + PACKAGE + "\""
+                    + " class=\"" + className + "\""
+                    + " text=\"" + escape(text) + "\""
+                    + " resource-id=\"" + (resourceId.isEmpty() ? "" : PACKAGE + ":id/" + resourceId) + "\""
+                    + " content-desc=\"" + escape(desc) + "\""
+                    + " checkable=\"false\" checked=\"false\""
+                    + " clickable=\"" + clickable + "\""
+                    + " enabled=\"" + enabled + "\""
+                    + " focusable=\"" + clickable + "\" focused=\"false\" scrollable=\"false\""
+                    + " long-clickable=\"false\" password=\"false\""
+                    + " selected=\"" + selected + "\""
+                    + " displayed=\"true\""
+                    + " bounds=\"[0," + nodeTop + "][1080," + bottom + "]\"";
+        }
+
+        private static String escape(String value) {
+            return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+
+        @Override
+        public String toString() {
+            return xml + "</android.widget.FrameLayout></hierarchy>";
+        }
+    }
+}
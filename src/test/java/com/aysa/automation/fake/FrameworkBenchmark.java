@@ -0,0 +1,161 @@
+package com.aysa.automation.fake;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.images.ImageStore;
+import com.aysa.automation.listeners.DevicePoolSuiteListener;
+import com.aysa.automation.listeners.LocatorSpeedupReporter;
+import com.aysa.automation.listeners.RetryAnnotationTransformer;
+import com.aysa.automation.listeners.StepTimingReporter;
+import com.aysa.automation.listeners.TestResultReporter;
+import com.aysa.automation.tests.DiseaseDetectionTest;
+import com.google.gson.GsonBuilder;
+import org.testng.ITestResult;
+import org.testng.TestListenerAdapter;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs DiseaseDetectionTest end-to-end against a {@link FakeAppiumServer} to measure
+ * the framework's own overhead with no device: cases per minute, Appium commands
+ * per case, and client-side time per case (wall time on all devices minus the
+ * time the server spent answering, including its simulated latency).
+ *
+ * Usage: ./gradlew benchmark [-Pargs="--cases 24 --devices 1 --latency 0 --analysis 0 --crash-every 0"]
+ * Writes benchmark-results.json next to the usual reports in build/benchmark/.
+ */
+public class FrameworkBenchmark {
+
+    private static final String OUTPUT_FILE = "benchmark-results.json";
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int cases = Integer.parseInt(options.getOrDefault("cases", "24"));
+        int devices = Integer.parseInt(options.getOrDefault("devices", "1"));
+        long latency = Long.parseLong(options.getOrDefault("latency", "0"));
+        long analysis = Long.parseLong(options.getOrDefault("analysis", "0"));
+        int crashEvery = Integer.parseInt(options.getOrDefault("crash-every", "0"));
+
+        ImageStore store = ImageStore.open(Paths.get(AppConfig.getInstance().getImageStorePath()));
+        Map<String, List<String>> albums = new LinkedHashMap<>();
+        for (String entry : store.entries().keySet()) {
+            albums.computeIfAbsent(entry.substring(0, entry.indexOf('/')), key -> new ArrayList<>())
+                    .add(entry.substring(entry.indexOf('/') + 1));
+        }
+
+        FakeAppiumServer server = new FakeAppiumServer(albums, latency, analysis);
+        server.setCrashEvery(crashEvery);
+        server.start();
+        configureSuite(server.getUrl(), devices);
+
+        TestListenerAdapter outcomes = new TestListenerAdapter();
+        TestNG testng = new TestNG();
+        testng.setUseDefaultListeners(false);
+        testng.addListener(new DevicePoolSuiteListener());
+        testng.addListener(new TestResultReporter());
+        testng.addListener(new StepTimingReporter());
+        testng.addListener(new RetryAnnotationTransformer());
+        testng.addListener(new LocatorSpeedupReporter());
+        testng.addListener(outcomes);
+        testng.setXmlSuites(Collections.singletonList(buildSuite(cases)));
+
+        long start = System.currentTimeMillis();
+        testng.run();
+        long wallMillis = System.currentTimeMillis() - start;
+        server.stop();
+
+        int passed = outcomes.getPassedTests().size();
+        int failed = outcomes.getFailedTests().size();
+        // Attempts that were retried show up as skips; count them separately
+        int retries = (int) outcomes.getSkippedTests().stream().filter(ITestResult::wasRetried).count();
+        int skipped = outcomes.getSkippedTests().size() - retries;
+        int finished = Math.max(1, passed + failed);
+        long commands = server.getCommandCount();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("devices", devices);
+        report.put("latencyMs", latency);
+        report.put("analysisMs", analysis);
+        report.put("crashEvery", crashEvery);
+        report.put("passed", passed);
+        report.put("failed", failed);
+        report.put("skipped", skipped);
+        report.put("retries", retries);
+        report.put("wallMs", wallMillis);
+        report.put("casesPerMinute", round(finished * 60000.0 / wallMillis));
+        report.put("commands", commands);
+        report.put("commandsPerCase", round((double) commands / finished));
+        report.put("serverMsPerCase", round((double) server.getServerMillis() / finished));
+        report.put("clientMsPerCase",
+                round((double) (wallMillis * devices - server.getServerMillis()) / finished));
+        report.put("commandCounts", server.getCommandCounts());
+
+        try (Writer out = new FileWriter(OUTPUT_FILE)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, out);
+        }
+        System.out.printf("%n>>> Benchmark: %d passed, %d failed, %d skipped (%d retries) in %.1fs on %d fake device(s)%n",
+                passed, failed, skipped, retries, wallMillis / 1000.0, devices);
+        System.out.printf(">>> %.1f cases/min, %.1f commands/case, %.0f ms client-side per case -> %s%n",
+                finished * 60000.0 / wallMillis, (double) commands / finished,
+                (double) (wallMillis * devices - server.getServerMillis()) / finished, OUTPUT_FILE);
+        System.exit(failed + skipped > 0 ? 1 : 0);
+    }
+
+    /**
+     * Points the suite at the fake server and turns off everything that needs a real device or history.
+     */
+    private static void configureSuite(String serverUrl, int devices) {
+        List<String> udids = new ArrayList<>();
+        for (int i = 1; i <= devices; i++) {
+            udids.add("fake-" + i);
+        }
+        System.setProperty("appium.server.url", serverUrl);
+        System.setProperty("device.udids", String.join(",", udids));
+        System.setProperty("image.sync.enabled", "false");
+        System.setProperty("image.delivery", System.getProperty("image.delivery", "picker"));
+        System.setProperty("questionnaire.mode", "client");
+        System.setProperty("suite.order", "file");
+        System.setProperty("suite.budget", "");
+        System.setProperty("suite.incremental", "false");
+        System.setProperty("suite.resume", "false");
+    }
+
+    private static XmlSuite buildSuite(int cases) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Framework Benchmark");
+        XmlTest test = new XmlTest(suite);
+        test.setName("Disease Detection Benchmark");
+        XmlClass testClass = new XmlClass(DiseaseDetectionTest.class);
+        List<Integer> invocations = new ArrayList<>();
+        for (int i = 0; i < cases; i++) {
+            invocations.add(i);
+        }
+        testClass.getIncludedMethods().add(new XmlInclude("testDiseaseDetection", invocations, 0));
+        test.getXmlClasses().add(testClass);
+        return suite;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.aysa.automation.images;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Pushes the test corpus from the {@link ImageStore} into per-disease albums on a
+ * device, copying only files whose content changed since the last sync.
+ *
+ * The device keeps a manifest of relative path to SHA-256 next to the albums.
+ * A sync pulls it, diffs it against the store index, pushes the differences,
+ * writes the manifest back and rescans only the albums that changed.
+ * The store index already holds every hash, so nothing is re-read locally.
+ */
+public class DeviceImageSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceImageSync.class);
+    private static final String MANIFEST_NAME = ".aysa-sync-manifest.properties";
+
+    private final ImageStore store;
+    private final String remoteRoot;
+
+    public DeviceImageSync(ImageStore store, String remoteRoot) {
+        this.store = store;
+        this.remoteRoot = remoteRoot.endsWith("/") ? remoteRoot : remoteRoot + "/";
+    }
+
+    /**
+     * Brings the device's albums up to date. Returns the number of files pushed.
+     */
+    public int sync(AndroidDriver driver, String deviceName) {
+        long start = System.currentTimeMillis();
+        Map<String, String> local = store.entries();
+        Properties remote = pullManifest(driver);
+
+        TreeSet<String> changedAlbums = new TreeSet<>();
+        int pushed = 0;
+        for (Map.Entry<String, String> entry : local.entrySet()) {
+            String relativePath = entry.getKey();
+            if (entry.getValue().equals(remote.getProperty(relativePath))) {
+                continue;
+            }
+            push(driver, relativePath);
+            remote.setProperty(relativePath, entry.getValue());
+            changedAlbums.add(relativePath.substring(0, relativePath.indexOf('/')));
+            pushed++;
+        }
+
+        if (pushed > 0) {
+            pushManifest(driver, remote);
+            for (String album : changedAlbums) {
+                scanAlbum(driver, album);
+            }
+        }
+        logger.info("Image sync on {}: {} of {} file(s) pushed in {} ms (albums: {})",
+                deviceName, pushed, local.size(), System.currentTimeMillis() - start, changedAlbums);
+        return pushed;
+    }
+
+    private void push(AndroidDriver driver, String relativePath) {
+        try {
+            driver.pushFile(remoteRoot + relativePath, store.resolve(relativePath).toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to push " + relativePath, e);
+        }
+    }
+
+    private Properties pullManifest(AndroidDriver driver) {
+        Properties manifest = new Properties();
+        try {
+            manifest.load(new ByteArrayInputStream(driver.pullFile(remoteRoot + MANIFEST_NAME)));
+        } catch (Exception e) {
+            logger.info("No sync manifest on device yet, pushing full corpus");
+        }
+        return manifest;
+    }
+
+    private void pushManifest(AndroidDriver driver, Properties manifest) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            manifest.store(out, "Aysa test image sync manifest: relative path = SHA-256");
+            driver.pushFile(remoteRoot + MANIFEST_NAME, out.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write sync manifest", e);
+        }
+    }
+
+    /**
+     * Makes new files in an album visible to the app's picker without a full media rescan.
+     */
+    private void scanAlbum(AndroidDriver driver, String album) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("remotePath", remoteRoot + album);
+        try {
+            driver.executeScript("mobile: scanMedia", args);
+        } catch (Exception e) {
+            logger.warn("Media scan of {} failed: {}", album, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.aysa.automation.images;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.data.TestData;
+import com.aysa.automation.utils.AppInfo;
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands a test image straight to the Aysa app with an ACTION_SEND intent,
+ * skipping the new-case screen and the in-app image picker.
+ *
+ * The image must already be on the device under gallery.image.path/&lt;disease&gt;/
+ * (see {@link DeviceImageSync}). The intent targets app.share.activity when set,
+ * otherwise the app package, letting Android resolve its share handler.
+ *
+ * The image is shared by its MediaStore content:// URI, which the read-permission
+ * flag grants to the app. Looking it up uses "mobile: shell", so the Appium server
+ * must run with --allow-insecure=adb_shell; without it the image is shared as a
+ * file:// URI, which Android 13+ only lets the app open if it holds READ_MEDIA_IMAGES.
+ */
+public class ImageIntentInjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageIntentInjector.class);
+
+    // FLAG_ACTIVITY_NEW_TASK | FLAG_ACTIVITY_CLEAR_TOP | FLAG_GRANT_READ_URI_PERMISSION
+    private static final String INTENT_FLAGS = "0x14000001";
+    private static final String MEDIA_IMAGES = "content://media/external/images/media";
+    private static final Pattern MEDIA_ID = Pattern.compile("_id=(\\d+)");
+    // Shared device storage as the shell sees it and as MediaStore records it
+    private static final Pattern STORAGE_ROOT = Pattern.compile("^(/sdcard|/storage/emulated/\\d+|/storage/self/primary)");
+
+    // Content URIs by device and image path; stable until the image is deleted
+    private static final Map<String, String> contentUris = new ConcurrentHashMap<>();
+
+    private final AndroidDriver driver;
+    private final AppConfig config;
+
+    public ImageIntentInjector(AndroidDriver driver, AppConfig config) {
+        this.driver = driver;
+        this.config = config;
+    }
+
+    /**
+     * Starts the app's share handler with the test case image, landing on the photo preview.
+     */
+    public void deliver(TestData testData) {
+        String imageUri = getImageUri(getRemotePath(testData));
+        logger.info("Delivering image via intent: {}", imageUri);
+
+        Map<String, Object> args = new HashMap<>();
+        args.put("action", "android.intent.action.SEND");
+        args.put("mimeType", "image/jpeg");
+        args.put("flags", INTENT_FLAGS);
+        args.put("wait", true);
+        args.put("extras", Collections.singletonList(
+                Arrays.asList("u", "android.intent.extra.STREAM", imageUri)));
+
+        String shareActivity = config.getShareActivity();
+        if (shareActivity != null && !shareActivity.isEmpty()) {
+            args.put("intent", config.getAppPackage() + "/" + shareActivity);
+        } else {
+            args.put("package", config.getAppPackage());
+        }
+
+        driver.executeScript("mobile: startActivity", args);
+    }
+
+    /**
+     * Returns the image's MediaStore URI, or a file:// URI if MediaStore has no entry for it.
+     */
+    private String getImageUri(String remotePath) {
+        String key = AppInfo.getDeviceId(driver) + "|" + remotePath;
+        String cached = contentUris.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String contentUri = queryContentUri(remotePath);
+        if (contentUri == null) {
+            logger.warn("No MediaStore entry for {}, sharing it as a file:// URI", remotePath);
+            return "file://" + remotePath;
+        }
+        contentUris.put(key, contentUri);
+        return contentUri;
+    }
+
+    private String queryContentUri(String remotePath) {
+        // MediaStore keeps /storage/emulated/0 paths, so match on the part below the storage root
+        String relativePath = STORAGE_ROOT.matcher(remotePath).replaceFirst("").replace("'", "''");
+        Map<String, Object> args = new HashMap<>();
+        args.put("command", "content");
+        args.put("args", Arrays.asList("query", "--uri", MEDIA_IMAGES, "--projection", "_id",
+                "--where", "\"_data LIKE '%" + relativePath + "'\""));
+        try {
+            String output = String.valueOf(driver.executeScript("mobile: shell", args));
+            Matcher matcher = MEDIA_ID.matcher(output);
+            return matcher.find() ? MEDIA_IMAGES + "/" + matcher.group(1) : null;
+        } catch (Exception e) {
+            logger.debug("MediaStore lookup of {} failed: {}", remotePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private String getRemotePath(TestData testData) {
+        String galleryPath = config.getGalleryImagePath();
+        if (!galleryPath.endsWith("/")) {
+            galleryPath += "/";
+        }
+        return galleryPath + testData.getFolderName() + "/" + testData.getImageName();
+    }
+}
@@ -0,0 +1,234 @@
+package com.aysa.automation.images;
+
+import com.aysa.automation.utils.FileHashes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for the test image corpus.
+ *
+ * Every distinct image is kept once under objects/&lt;first two hex digits&gt;/&lt;sha256&gt;.jpg.
+ * index.properties maps each corpus entry ("disease/name.jpg") to the hash of its
+ * content, so identical images shared by several entries cost disk and I/O once,
+ * and the index doubles as the precomputed hash list for device syncs.
+ *
+ * Usage: ./gradlew importImages -Pargs="&lt;dir&gt; [&lt;dir&gt; ...]" to add &lt;dir&gt;/&lt;disease&gt;/*.jpg.
+ */
+public class ImageStore {
+
+    private static final String INDEX_NAME = "index.properties";
+    private static final String OBJECTS_DIR = "objects";
+
+    private static final Map<Path, ImageStore> opened = new TreeMap<>();
+
+    private final Path root;
+    private final SortedMap<String, String> index = new TreeMap<>();
+
+    private ImageStore(Path root) {
+        this.root = root;
+        loadIndex();
+    }
+
+    /**
+     * Returns the store rooted at the given directory, loading its index once per JVM.
+     */
+    public static ImageStore open(Path root) {
+        synchronized (opened) {
+            return opened.computeIfAbsent(root.toAbsolutePath().normalize(), ImageStore::new);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ImageStore <dir> [<dir> ...]  (imports <dir>/<disease>/*.jpg into image-store/)");
+            return;
+        }
+        ImageStore store = open(Paths.get(System.getProperty("image.store", "image-store")));
+        int before = store.size();
+        for (String dir : args) {
+            store.importDirectory(Paths.get(dir));
+        }
+        store.save();
+        System.out.printf("Image store: %d entries (%d new), %d distinct images%n",
+                store.size(), store.size() - before, store.distinctImages());
+    }
+
+    // ==================== Lookups ====================
+
+    /**
+     * Returns every entry ("disease/name.jpg") mapped to its content hash, sorted by entry.
+     */
+    public synchronized SortedMap<String, String> entries() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(index));
+    }
+
+    /**
+     * Returns the image names stored for one disease folder.
+     */
+    public synchronized List<String> names(String disease) {
+        String prefix = disease + "/";
+        List<String> names = new ArrayList<>();
+        for (String entry : index.subMap(prefix, prefix + Character.MAX_VALUE).keySet()) {
+            names.add(entry.substring(prefix.length()));
+        }
+        return names;
+    }
+
+    public synchronized boolean contains(String entry) {
+        return index.containsKey(entry);
+    }
+
+    public synchronized String hashOf(String entry) {
+        return index.get(entry);
+    }
+
+    /**
+     * Returns the file holding an entry's content.
+     */
+    public Path resolve(String entry) {
+        String hash = hashOf(entry);
+        if (hash == null) {
+            throw new IllegalArgumentException("Image not in store: " + entry);
+        }
+        return objectPath(hash);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized int distinctImages() {
+        return new HashSet<>(index.values()).size();
+    }
+
+    // ==================== Updates ====================
+
+    /**
+     * Adds or replaces an entry with the content of a file. Returns the content hash.
+     */
+    public String put(String entry, Path file) throws IOException {
+        String hash = FileHashes.sha256(file);
+        Path object = objectPath(hash);
+        if (!Files.exists(object)) {
+            Files.createDirectories(object.getParent());
+            Path temp = Files.createTempFile(object.getParent(), hash, ".tmp");
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        synchronized (this) {
+            index.put(entry, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Adds or replaces an entry with in-memory content. Returns the content hash.
+     */
+    public String put(String entry, byte[] content) throws IOException {
+        String hash = FileHashes.sha256(content);
+        Path object = objectPath(hash);
+        if (!Files.exists(object)) {
+            Files.createDirectories(object.getParent());
+            Path temp = Files.createTempFile(object.getParent(), hash, ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        synchronized (this) {
+            index.put(entry, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Imports &lt;dir&gt;/&lt;disease&gt;/*.jpg. Entries already present with the same content are left alone.
+     */
+    public void importDirectory(Path dir) throws IOException {
+        try (DirectoryStream<Path> diseases = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path diseaseDir : diseases) {
+                try (DirectoryStream<Path> images = Files.newDirectoryStream(diseaseDir, "*.jpg")) {
+                    for (Path image : images) {
+                        put(diseaseDir.getFileName() + "/" + image.getFileName(), image);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the index and deletes objects no entry refers to any more.
+     */
+    public synchronized void save() {
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create " + root, e);
+        }
+        try (Writer out = Files.newBufferedWriter(root.resolve(INDEX_NAME), StandardCharsets.UTF_8)) {
+            out.write("# Test image index: disease/name.jpg = SHA-256 of objects/<aa>/<sha256>.jpg\n");
+            for (Map.Entry<String, String> entry : index.entrySet()) {
+                out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write image index", e);
+        }
+        prune();
+    }
+
+    private void prune() {
+        Set<String> referenced = new HashSet<>(index.values());
+        Path objects = root.resolve(OBJECTS_DIR);
+        if (!Files.isDirectory(objects)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(objects, 2)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !referenced.contains(file.getFileName().toString().replace(".jpg", "")))
+                    .forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prune " + objects, e);
+        }
+    }
+
+    private void loadIndex() {
+        Path file = root.resolve(INDEX_NAME);
+        if (!Files.exists(file)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image index " + file, e);
+        }
+        for (String entry : properties.stringPropertyNames()) {
+            index.put(entry, properties.getProperty(entry));
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    private Path objectPath(String hash) {
+        return root.resolve(OBJECTS_DIR).resolve(hash.substring(0, 2)).resolve(hash + ".jpg");
+    }
+}
@@ -0,0 +1,324 @@
+package com.aysa.automation.images;
+
+import com.aysa.automation.data.ImageVariation;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates each {@link ImageVariation} of every original image in the {@link ImageStore}
+ * and adds the results to the store.
+ *
+ * Work is spread over a fork/join pool, one task per original with one subtask
+ * per variation. A manifest records the source hash and variation parameters each
+ * output was built from, so reruns only rebuild outputs whose source or parameters
+ * changed. New originals are added with the importImages task first.
+ *
+ * Usage: ./gradlew generateVariations [-Pargs="&lt;storeDir&gt;"]
+ */
+public class ImageVariationGenerator {
+
+    private static final String MANIFEST_NAME = "variations.properties";
+    private static final Color FILL = new Color(128, 128, 128);
+    private static final float JPEG_QUALITY = 0.9f;
+
+    private final ImageStore store;
+    private final Properties manifest = new Properties();
+    private final AtomicInteger built = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public ImageVariationGenerator(ImageStore store) {
+        this.store = store;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(args.length > 0 ? args[0] : System.getProperty("image.store", "image-store"));
+        new ImageVariationGenerator(ImageStore.open(root)).run();
+    }
+
+    public void run() throws IOException {
+        long start = System.currentTimeMillis();
+        loadManifest();
+
+        List<ImageTask> tasks = new ArrayList<>();
+        for (String entry : store.entries().keySet()) {
+            String imageName = entry.substring(entry.indexOf('/') + 1);
+            if (ImageVariation.fromImageName(imageName) == ImageVariation.ORIGINAL) {
+                tasks.add(new ImageTask(entry));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        store.save();
+        saveManifest();
+
+        System.out.printf("Generated %d image(s), %d unchanged, from %d original(s) in %d ms -> %s%n",
+                built.get(), skipped.get(), tasks.size(), System.currentTimeMillis() - start,
+                store.getRoot().toAbsolutePath());
+    }
+
+    /**
+     * Builds all out-of-date variations of one original, decoding it at most once.
+     */
+    private class ImageTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String source;
+
+        ImageTask(String source) {
+            this.source = source;
+        }
+
+        @Override
+        protected void compute() {
+            String sourceHash = store.hashOf(source);
+            List<ImageVariation> stale = new ArrayList<>();
+            for (ImageVariation variation : ImageVariation.values()) {
+                if (variation == ImageVariation.ORIGINAL) {
+                    continue;
+                }
+                if (isUpToDate(variation, sourceHash)) {
+                    skipped.incrementAndGet();
+                } else {
+                    stale.add(variation);
+                }
+            }
+            if (stale.isEmpty()) {
+                return;
+            }
+
+            try {
+                BufferedImage image = toRgb(ImageIO.read(store.resolve(source).toFile()));
+                List<RecursiveAction> outputs = new ArrayList<>();
+                for (ImageVariation variation : stale) {
+                    outputs.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            build(variation, image, sourceHash);
+                        }
+                    });
+                }
+                invokeAll(outputs);
+            } catch (IOException e) {
+                System.err.println("Error processing " + source + ": " + e.getMessage());
+            }
+        }
+
+        private boolean isUpToDate(ImageVariation variation, String sourceHash) {
+            String target = target(variation);
+            return store.contains(target) && stamp(variation, sourceHash).equals(manifest.getProperty(target));
+        }
+
+        private void build(ImageVariation variation, BufferedImage image, String sourceHash) {
+            String target = target(variation);
+            try {
+                store.put(target, encodeJpeg(apply(variation, image)));
+                synchronized (manifest) {
+                    manifest.setProperty(target, stamp(variation, sourceHash));
+                }
+                built.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("Error generating " + target + ": " + e.getMessage());
+            }
+        }
+
+        private String target(ImageVariation variation) {
+            int slash = source.indexOf('/');
+            return source.substring(0, slash + 1) + variation.fileName(source.substring(slash + 1));
+        }
+    }
+
+    private static String stamp(ImageVariation variation, String sourceHash) {
+        return sourceHash + "|" + variation.getSignature();
+    }
+
+    // ==================== Transformations ====================
+
+    static BufferedImage apply(ImageVariation variation, BufferedImage image) {
+        switch (variation.getKind()) {
+            case LIGHTING:
+                return applyLighting(image, variation.getParam(0), variation.getParam(1));
+            case DISTANCE:
+                return applyDistance(image, variation.getParam(0));
+            case CROPPED:
+                return applyCrop(image, variation.getParam(0));
+            case ANGLED:
+                return applyAngle(image, variation.getParam(0));
+            default:
+                return image;
+        }
+    }
+
+    /**
+     * Scales brightness towards black, then contrast around the mean grey level (as Pillow's ImageEnhance).
+     */
+    private static BufferedImage applyLighting(BufferedImage image, double brightness, double contrast) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        double luminance = 0;
+        for (int i = 0; i < pixels.length; i++) {
+            int r = clamp(((pixels[i] >> 16) & 0xff) * brightness);
+            int g = clamp(((pixels[i] >> 8) & 0xff) * brightness);
+            int b = clamp((pixels[i] & 0xff) * brightness);
+            pixels[i] = (r << 16) | (g << 8) | b;
+            luminance += r * 0.299 + g * 0.587 + b * 0.114;
+        }
+        double mean = Math.round(luminance / pixels.length);
+
+        for (int i = 0; i < pixels.length; i++) {
+            int r = clamp(mean + (((pixels[i] >> 16) & 0xff) - mean) * contrast);
+            int g = clamp(mean + (((pixels[i] >> 8) & 0xff) - mean) * contrast);
+            int b = clamp(mean + ((pixels[i] & 0xff) - mean) * contrast);
+            pixels[i] = (r << 16) | (g << 8) | b;
+        }
+
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        result.setRGB(0, 0, width, height, pixels, 0, width);
+        return result;
+    }
+
+    /**
+     * Simulates distance by scaling the image down and centring it on a grey canvas.
+     */
+    private static BufferedImage applyDistance(BufferedImage image, double scale) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int newWidth = (int) (width * scale);
+        int newHeight = (int) (height * scale);
+
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = createGraphics(result);
+        g.setColor(FILL);
+        g.fillRect(0, 0, width, height);
+        g.drawImage(image, (width - newWidth) / 2, (height - newHeight) / 2, newWidth, newHeight, null);
+        g.dispose();
+        return result;
+    }
+
+    /**
+     * Centre-crops the image and resizes the crop back to the original dimensions.
+     */
+    private static BufferedImage applyCrop(BufferedImage image, double cropRatio) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int newWidth = (int) (width * cropRatio);
+        int newHeight = (int) (height * cropRatio);
+        int left = (width - newWidth) / 2;
+        int top = (height - newHeight) / 2;
+
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = createGraphics(result);
+        g.drawImage(image, 0, 0, width, height, left, top, left + newWidth, top + newHeight, null);
+        g.dispose();
+        return result;
+    }
+
+    /**
+     * Rotates counter-clockwise around the centre, keeping the original size and filling corners grey.
+     */
+    private static BufferedImage applyAngle(BufferedImage image, double degrees) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = createGraphics(result);
+        g.setColor(FILL);
+        g.fillRect(0, 0, width, height);
+        g.rotate(-Math.toRadians(degrees), width / 2.0, height / 2.0);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return result;
+    }
+
+    private static Graphics2D createGraphics(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        return g;
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) throws IOException {
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    private static int clamp(double value) {
+        return (int) Math.max(0, Math.min(255, Math.round(value)));
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    // ==================== Manifest ====================
+
+    private void loadManifest() throws IOException {
+        Path file = store.getRoot().resolve(MANIFEST_NAME);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                manifest.load(in);
+            }
+        }
+    }
+
+    private void saveManifest() {
+        try (OutputStream out = Files.newOutputStream(store.getRoot().resolve(MANIFEST_NAME))) {
+            manifest.store(out, "Generated image = source SHA-256|variation parameters");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write variations manifest", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.aysa.automation.listeners;
+
+import com.aysa.automation.base.DevicePool;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Sizes the data-provider thread pool to the number of configured devices,
+ * so every device gets exactly one worker thread.
+ */
+public class DevicePoolSuiteListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int deviceCount = DevicePool.getInstance().size();
+        for (XmlSuite suite : suites) {
+            suite.setDataProviderThreadCount(deviceCount);
+        }
+        System.out.println(">>> Running data-provider cases on " + deviceCount + " device(s)");
+    }
+}
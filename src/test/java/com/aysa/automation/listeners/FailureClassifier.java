@@ -0,0 +1,54 @@
+package com.aysa.automation.listeners;
+
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Sorts test failures into infrastructure problems, which say nothing about the
+ * app's diagnosis and are worth retrying, and result failures, which are the
+ * verdict the suite exists to report.
+ */
+public final class FailureClassifier {
+
+    public enum Kind {
+        /** Session loss, a crashed UiAutomator2, timeouts or stale elements while navigating. */
+        INFRASTRUCTURE,
+        /** A failed assertion on the results screen, or a bug in the test code itself. */
+        RESULT
+    }
+
+    private FailureClassifier() {
+    }
+
+    /**
+     * Classifies a failure by its exception chain. Assertions always count as results;
+     * anything else is infrastructure only when WebDriver raised it. Session setup
+     * failures never reach here: TestNG skips a test whose @BeforeMethod failed without
+     * asking the retry analyzer, so BaseTest retries session creation with backoff itself.
+     */
+    public static Kind classify(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AssertionError) {
+                return Kind.RESULT;
+            }
+            // A broken locator, script or command argument fails the same way every time
+            if (cause instanceof InvalidSelectorException || cause instanceof JavascriptException
+                    || cause instanceof InvalidArgumentException) {
+                return Kind.RESULT;
+            }
+            if (cause instanceof WebDriverException) {
+                return Kind.INFRASTRUCTURE;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return Kind.RESULT;
+    }
+
+    public static boolean isInfrastructure(Throwable failure) {
+        return failure != null && classify(failure) == Kind.INFRASTRUCTURE;
+    }
+}
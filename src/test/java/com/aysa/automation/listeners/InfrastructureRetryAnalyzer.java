@@ -0,0 +1,40 @@
+package com.aysa.automation.listeners;
+
+import com.aysa.automation.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-runs a case straight away when it failed for an infrastructure reason (see
+ * {@link FailureClassifier}), up to suite.retries times. BaseTest discards the
+ * session after such a failure, so the retry gets a fresh one. Wrong or missing
+ * diagnoses are never retried.
+ */
+public class InfrastructureRetryAnalyzer implements IRetryAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InfrastructureRetryAnalyzer.class);
+
+    // Keyed by method and parameters, so data-provider rows keep separate counts
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean retry(ITestResult result) {
+        if (!FailureClassifier.isInfrastructure(result.getThrowable())) {
+            return false;
+        }
+        String key = result.getMethod().getQualifiedName() + Arrays.toString(result.getParameters());
+        int attempt = attempts.merge(key, 1, Integer::sum);
+        if (attempt > AppConfig.getInstance().getInfrastructureRetries()) {
+            return false;
+        }
+        logger.warn("Retrying {} (attempt {}) after infrastructure failure: {}",
+                key, attempt + 1, result.getThrowable().toString());
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aysa.automation.listeners;
+
+import com.aysa.automation.pages.LocatorCompiler;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Exports the native vs XPath lookup times sampled by {@link LocatorCompiler} at suite end.
+ */
+public class LocatorSpeedupReporter implements ISuiteListener {
+
+    private static final String OUTPUT_FILE = "locator-speedup.json";
+
+    @Override
+    public void onFinish(ISuite suite) {
+        LocatorCompiler.writeReport(OUTPUT_FILE);
+    }
+}
@@ -0,0 +1,511 @@
+package com.aysa.automation.listeners;
+
+import com.aysa.automation.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Append-only store of every run's per-case outcomes, kept across runs (unlike
+ * test-results.txt, which each run replaces).
+ *
+ * Layout under the history directory:
+ * - strings.txt: dictionary of case keys ("disease/name.jpg"), app versions and
+ *   detected-disease lists, one per line; a string's ID is its line number, so
+ *   backslashes and line breaks in a value are escaped, as are '|' and backslashes
+ *   inside the labels of a detected list
+ * - runs.bin: one fixed-size header per run (start time, first result, result count)
+ * - results.bin: one fixed-size record per case result, referring to the dictionary
+ *
+ * A query resolves the case pattern against the dictionary once, seeks straight to
+ * the first result of the requested runs and scans fixed-size records, so it never
+ * parses old reports and its cost depends on the window, not on how long the history is.
+ * A run becomes visible only once its header is written, so a crash mid-append
+ * leaves the earlier runs intact; the orphaned tail is overwritten by the next run.
+ */
+public class ResultHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultHistory.class);
+
+    private static final String STRINGS_FILE = "strings.txt";
+    private static final String RUNS_FILE = "runs.bin";
+    private static final String RESULTS_FILE = "results.bin";
+
+    // startedAt (long), firstResult (long), resultCount (int), padding (int)
+    private static final int RUN_BYTES = 24;
+    // run, caseRef, versionRef, detectedRef, durationMs (ints), status (byte), padding
+    private static final int RESULT_BYTES = 24;
+    private static final int READ_BATCH = 4096;
+    private static final int NONE = -1;
+    private static final String DETECTED_SEPARATOR = "|";
+
+    private final Path root;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final Map<Integer, List<String>> detectedLists = new HashMap<>();
+
+    /**
+     * One case result from a past run.
+     */
+    public static class Record {
+        public final int run;
+        public final long runStartedAt;
+        public final String caseKey;
+        public final String appVersion;
+        public final String status;
+        public final long durationMs;
+        /** Diseases shown on the results screen, or null if the case never got that far. */
+        public final List<String> detected;
+
+        Record(int run, long runStartedAt, String caseKey, String appVersion, String status,
+                long durationMs, List<String> detected) {
+            this.run = run;
+            this.runStartedAt = runStartedAt;
+            this.caseKey = caseKey;
+            this.appVersion = appVersion;
+            this.status = status;
+            this.durationMs = durationMs;
+            this.detected = detected;
+        }
+    }
+
+    /**
+     * Pass/fail counts and mean duration of a group of results.
+     */
+    public static class Rate {
+        private int runs;
+        private int lastRun = NONE;
+        private int passed;
+        private int failed;
+        private int skipped;
+        private long totalMillis;
+
+        void add(Record record) {
+            if (record.run != lastRun) {
+                runs++;
+                lastRun = record.run;
+            }
+            switch (record.status) {
+                case "PASS":
+                    passed++;
+                    break;
+                case "FAIL":
+                    failed++;
+                    break;
+                default:
+                    skipped++;
+                    return;
+            }
+            totalMillis += record.durationMs;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public int getPassed() {
+            return passed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Returns the pass rate of executed (passed or failed) results as a percentage, or -1 if none.
+         */
+        public double getPassRate() {
+            int executed = passed + failed;
+            return executed > 0 ? passed * 100.0 / executed : -1;
+        }
+
+        /**
+         * Returns the mean duration of executed results, or -1 if none.
+         */
+        public long getMeanMillis() {
+            int executed = passed + failed;
+            return executed > 0 ? totalMillis / executed : -1;
+        }
+    }
+
+    private ResultHistory(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Opens (creating if needed) the history stored under a directory.
+     */
+    public static ResultHistory open(Path root) throws IOException {
+        Files.createDirectories(root);
+        ResultHistory history = new ResultHistory(root);
+        history.loadStrings();
+        return history;
+    }
+
+    // ==================== Writing ====================
+
+    /**
+     * Appends one run. Cached (replayed) verdicts are left out: they were not run on a device.
+     */
+    public void appendRun(long startedAt, List<ResultLog.Entry> entries) throws IOException {
+        List<ResultLog.Entry> executed = new ArrayList<>();
+        for (ResultLog.Entry entry : entries) {
+            if (entry.folder != null && !entry.cached) {
+                executed.add(entry);
+            }
+        }
+        if (executed.isEmpty()) {
+            return;
+        }
+
+        try (FileChannel runs = FileChannel.open(root.resolve(RUNS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel results = FileChannel.open(root.resolve(RESULTS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            int run = (int) (runs.size() / RUN_BYTES);
+            long firstResult = 0;
+            if (run > 0) {
+                ByteBuffer last = readFully(runs, (long) (run - 1) * RUN_BYTES, RUN_BYTES);
+                firstResult = last.getLong(8) + last.getInt(16);
+            }
+
+            // New strings first, so every record written below can be resolved
+            ByteBuffer records = ByteBuffer.allocate(executed.size() * RESULT_BYTES);
+            try (BufferedWriter dictionary = Files.newBufferedWriter(root.resolve(STRINGS_FILE),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ResultLog.Entry entry : executed) {
+                    records.putInt(run)
+                            .putInt(intern(dictionary, entry.folder + "/" + entry.image))
+                            .putInt(entry.appVersion != null ? intern(dictionary, entry.appVersion) : NONE)
+                            .putInt(entry.detected != null
+                                    ? intern(dictionary, joinDetected(entry.detected))
+                                    : NONE)
+                            .putInt((int) Math.min(entry.durationMs, Integer.MAX_VALUE))
+                            .put((byte) entry.status.charAt(0))
+                            .put(new byte[3]);
+                }
+            }
+            records.flip();
+            writeFully(results, firstResult * RESULT_BYTES, records);
+            results.force(false);
+
+            // The header publishes the run
+            ByteBuffer header = ByteBuffer.allocate(RUN_BYTES)
+                    .putLong(startedAt)
+                    .putLong(firstResult)
+                    .putInt(executed.size())
+                    .putInt(0);
+            header.flip();
+            writeFully(runs, (long) run * RUN_BYTES, header);
+            runs.force(false);
+        }
+    }
+
+    private int intern(BufferedWriter dictionary, String value) throws IOException {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        dictionary.write(escapeLine(value));
+        dictionary.write('\n');
+        strings.add(value);
+        stringIds.put(value, strings.size() - 1);
+        return strings.size() - 1;
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Returns the number of runs recorded.
+     */
+    public int runCount() throws IOException {
+        Path runs = root.resolve(RUNS_FILE);
+        return Files.exists(runs) ? (int) (Files.size(runs) / RUN_BYTES) : 0;
+    }
+
+    /**
+     * Streams the results of the last {@code lastRuns} runs (all runs if not positive)
+     * whose case matches {@code casePattern}, oldest first.
+     *
+     * The pattern is a glob matched against the case key ("psoriasis/1_bright.jpg"),
+     * the image name ("1_bright.jpg") and the image name without extension ("1_bright"),
+     * so "*_low_light" selects every low-light variation; null matches every case.
+     */
+    public void forEach(int lastRuns, String casePattern, Consumer<Record> consumer) throws IOException {
+        int runCount = runCount();
+        if (runCount == 0) {
+            return;
+        }
+        BitSet cases = matchingCases(casePattern);
+        if (cases.isEmpty()) {
+            return;
+        }
+        int firstRun = lastRuns > 0 ? Math.max(0, runCount - lastRuns) : 0;
+
+        long[] startedAt = new long[runCount - firstRun];
+        long firstResult;
+        long endResult;
+        try (FileChannel runs = FileChannel.open(root.resolve(RUNS_FILE), StandardOpenOption.READ)) {
+            ByteBuffer headers = readFully(runs, (long) firstRun * RUN_BYTES, startedAt.length * RUN_BYTES);
+            for (int i = 0; i < startedAt.length; i++) {
+                startedAt[i] = headers.getLong(i * RUN_BYTES);
+            }
+            firstResult = headers.getLong(8);
+            int lastHeader = (startedAt.length - 1) * RUN_BYTES;
+            endResult = headers.getLong(lastHeader + 8) + headers.getInt(lastHeader + 16);
+        }
+
+        try (FileChannel results = FileChannel.open(root.resolve(RESULTS_FILE), StandardOpenOption.READ)) {
+            for (long next = firstResult; next < endResult; next += READ_BATCH) {
+                int count = (int) Math.min(READ_BATCH, endResult - next);
+                ByteBuffer batch = readFully(results, next * RESULT_BYTES, count * RESULT_BYTES);
+                for (int i = 0; i < count; i++) {
+                    int base = i * RESULT_BYTES;
+                    int caseRef = batch.getInt(base + 4);
+                    if (!cases.get(caseRef)) {
+                        continue;
+                    }
+                    int run = batch.getInt(base);
+                    consumer.accept(new Record(
+                            run,
+                            startedAt[run - firstRun],
+                            strings.get(caseRef),
+                            lookup(batch.getInt(base + 8)),
+                            status(batch.get(base + 20)),
+                            batch.getInt(base + 16),
+                            detected(batch.getInt(base + 12))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the results of matching cases over the last {@code lastRuns} runs, grouped
+     * by app version in the order the versions first appear.
+     */
+    public Map<String, Rate> ratesByVersion(int lastRuns, String casePattern) throws IOException {
+        Map<String, Rate> rates = new LinkedHashMap<>();
+        forEach(lastRuns, casePattern, record -> rates
+                .computeIfAbsent(String.valueOf(record.appVersion), key -> new Rate())
+                .add(record));
+        return rates;
+    }
+
+    /**
+     * Returns the results of matching cases over the last {@code lastRuns} runs, grouped by case.
+     */
+    public Map<String, Rate> ratesByCase(int lastRuns, String casePattern) throws IOException {
+        Map<String, Rate> rates = new LinkedHashMap<>();
+        forEach(lastRuns, casePattern, record -> rates
+                .computeIfAbsent(record.caseKey, key -> new Rate())
+                .add(record));
+        return rates;
+    }
+
+    private BitSet matchingCases(String casePattern) {
+        PathMatcher matcher = casePattern != null
+                ? FileSystems.getDefault().getPathMatcher("glob:" + casePattern)
+                : null;
+        BitSet cases = new BitSet(strings.size());
+        for (int id = 0; id < strings.size(); id++) {
+            String value = strings.get(id);
+            int slash = value.indexOf('/');
+            if (slash < 0 || !value.endsWith(".jpg")) {
+                continue;
+            }
+            String imageName = value.substring(slash + 1);
+            if (matcher == null
+                    || matcher.matches(Paths.get(value))
+                    || matcher.matches(Paths.get(imageName))
+                    || matcher.matches(Paths.get(imageName.substring(0, imageName.length() - 4)))) {
+                cases.set(id);
+            }
+        }
+        return cases;
+    }
+
+    private String lookup(int ref) {
+        return ref == NONE ? null : strings.get(ref);
+    }
+
+    private List<String> detected(int ref) {
+        if (ref == NONE) {
+            return null;
+        }
+        return detectedLists.computeIfAbsent(ref, key -> {
+            String joined = strings.get(key);
+            return joined.isEmpty()
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(splitDetected(joined));
+        });
+    }
+
+    /**
+     * Joins labels with '|', escaping '|' and backslashes inside them.
+     */
+    static String joinDetected(List<String> labels) {
+        StringBuilder joined = new StringBuilder();
+        for (String label : labels) {
+            if (joined.length() > 0) {
+                joined.append(DETECTED_SEPARATOR);
+            }
+            joined.append(label.replace("\\", "\\\\").replace(DETECTED_SEPARATOR, "\\" + DETECTED_SEPARATOR));
+        }
+        return joined.toString();
+    }
+
+    static List<String> splitDetected(String joined) {
+        List<String> labels = new ArrayList<>();
+        StringBuilder label = new StringBuilder();
+        for (int i = 0; i < joined.length(); i++) {
+            char c = joined.charAt(i);
+            if (c == '\\' && i + 1 < joined.length()) {
+                label.append(joined.charAt(++i));
+            } else if (c == DETECTED_SEPARATOR.charAt(0)) {
+                labels.add(label.toString());
+                label.setLength(0);
+            } else {
+                label.append(c);
+            }
+        }
+        labels.add(label.toString());
+        return labels;
+    }
+
+    /**
+     * Escapes backslashes and line breaks, so a value stays on its dictionary line.
+     */
+    static String escapeLine(String value) {
+        return value.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescapeLine(String line) {
+        if (line.indexOf('\\') < 0) {
+            return line;
+        }
+        StringBuilder value = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                value.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    private static String status(byte code) {
+        switch (code) {
+            case 'P':
+                return "PASS";
+            case 'F':
+                return "FAIL";
+            default:
+                return "SKIP";
+        }
+    }
+
+    // ==================== Files ====================
+
+    private void loadStrings() throws IOException {
+        Path file = root.resolve(STRINGS_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') {
+            complete--;
+        }
+        if (complete < bytes.length) {
+            // Torn last line from an interrupted append; no record refers to it yet
+            logger.warn("Dropping incomplete entry at the end of {}", file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+        String text = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            String value = unescapeLine(text.substring(start, end));
+            strings.add(value);
+            stringIds.putIfAbsent(value, strings.size() - 1);
+            start = end + 1;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of history file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Prints pass rate per app version: ResultHistory [case pattern] [last runs] [history dir].
+     */
+    public static void main(String[] args) throws IOException {
+        String pattern = args.length > 0 && !args[0].equals("*") ? args[0] : null;
+        int lastRuns = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        Path dir = Paths.get(args.length > 2 ? args[2]
+                : AppConfig.getInstance().getResultHistoryPath());
+
+        ResultHistory history = open(dir);
+        long start = System.nanoTime();
+        Map<String, Rate> rates = history.ratesByVersion(lastRuns, pattern);
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+        int runCount = history.runCount();
+        System.out.println(String.format("Cases matching %s over %s runs (%d us):",
+                pattern != null ? pattern : "*",
+                lastRuns > 0 && lastRuns < runCount ? "the last " + lastRuns + " of " + runCount : "all " + runCount,
+                elapsedMicros));
+        System.out.println(String.format("  %-24s %6s %7s %7s %9s %10s",
+                "App version", "Runs", "Passed", "Failed", "Pass rate", "Mean time"));
+        for (Map.Entry<String, Rate> entry : rates.entrySet()) {
+            Rate rate = entry.getValue();
+            System.out.println(String.format("  %-24s %6d %7d %7d %8.1f%% %9.1fs",
+                    entry.getKey(), rate.getRuns(), rate.getPassed(), rate.getFailed(),
+                    Math.max(0, rate.getPassRate()), Math.max(0, rate.getMeanMillis()) / 1000.0));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.aysa.automation.listeners;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Append-only, line-delimited JSON log of test results (one {@link Entry} per line).
+ *
+ * Test threads never block on the file: {@link #append} serializes the entry on
+ * the calling thread and hands it to a lock-free queue, and a single writer
+ * thread drains the queue, writing and syncing each batch to disk. An entry is
+ * durable only once its batch is synced: if the JVM dies, the running cases are
+ * lost along with every entry still queued, normally those appended while the
+ * writer was writing and syncing the previous batch. The file can be tailed live.
+ * Readers stream the file and skip a torn last line.
+ */
+public class ResultLog implements Closeable {
+
+    public static final String FILE = "test-results.jsonl";
+
+    private static final Gson GSON = new Gson();
+    private static final long WRITER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final FileOutputStream out;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException writeFailure;
+
+    /**
+     * One finished test.
+     */
+    public static class Entry {
+        public String className;
+        public String method;
+        public String test;
+        public Integer caseId;
+        public String folder;
+        public String image;
+        public String status;
+        public long durationMs;
+        public String error;
+        public boolean cached;
+        public long finishedAt;
+        public String appVersion;
+        public List<String> detected;
+
+        /**
+         * Returns "method:caseId", which identifies a data-driven case across runs, or null.
+         */
+        public String caseKey() {
+            return caseId != null ? method + ":" + caseId : null;
+        }
+    }
+
+    /**
+     * Where an entry starts in the log, with just enough of it to sort and count.
+     */
+    public static class Position {
+        public final long offset;
+        public final int length;
+        public final String method;
+        public final Integer caseId;
+        public final String test;
+        public final String status;
+        public final String caseKey;
+
+        Position(long offset, int length, Entry entry) {
+            this.offset = offset;
+            this.length = length;
+            this.method = entry.method;
+            this.caseId = entry.caseId;
+            this.test = entry.test;
+            this.status = entry.status;
+            this.caseKey = entry.caseKey();
+        }
+    }
+
+    public ResultLog(Path file, boolean append) throws IOException {
+        boolean torn = append && endsInTornLine(file);
+        this.out = new FileOutputStream(file.toFile(), append);
+        if (torn) {
+            // Terminate the line a crash cut short, so the first new entry starts on its own line
+            out.write('\n');
+            out.flush();
+        }
+        this.writer = new Thread(this::drainUntilClosed, "result-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Returns true if the file is non-empty and its last line has no newline.
+     */
+    private static boolean endsInTornLine(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() == 0) {
+                return false;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() != '\n';
+        }
+    }
+
+    /**
+     * Queues an entry for writing. Safe to call from any number of threads without blocking.
+     */
+    public void append(Entry entry) throws IOException {
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+        pending.offer(GSON.toJson(entry));
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Writes everything still queued and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void drainUntilClosed() {
+        while (true) {
+            boolean closing = closed;
+            try {
+                drain();
+            } catch (IOException e) {
+                writeFailure = e;
+                return;
+            }
+            if (closing) {
+                return;
+            }
+            LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+        }
+    }
+
+    private void drain() throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        String line;
+        while ((line = pending.poll()) != null) {
+            batch.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        if (batch.size() > 0) {
+            batch.writeTo(out);
+            out.flush();
+            out.getFD().sync();
+        }
+    }
+
+    // ==================== Reading ====================
+
+    /**
+     * Streams every readable entry of a log to the consumer, in file order.
+     */
+    public static void forEach(Path file, Consumer<Entry> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parse(line);
+                if (entry != null) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position of every readable entry, in file order. Entries can be
+     * read back in any order with {@link #readAt} without holding them all in memory.
+     */
+    public static List<Position> index(Path file) throws IOException {
+        List<Position> positions = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return positions;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            long lineStart = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                Entry entry = parse(line.toString(StandardCharsets.UTF_8.name()));
+                if (entry != null) {
+                    positions.add(new Position(lineStart, line.size(), entry));
+                }
+                line.reset();
+                lineStart = offset;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Reads the entry at a position returned by {@link #index}, in one read of its line.
+     */
+    public static Entry readAt(RandomAccessFile file, Position position) throws IOException {
+        byte[] line = new byte[position.length];
+        file.seek(position.offset);
+        file.readFully(line);
+        return parse(new String(line, StandardCharsets.UTF_8));
+    }
+
+    private static Entry parse(String line) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Entry entry = GSON.fromJson(line, Entry.class);
+            return entry != null && entry.status != null ? entry : null;
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.aysa.automation.listeners;
+
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Gives every test without its own retry analyzer the {@link InfrastructureRetryAnalyzer}.
+ */
+public class RetryAnnotationTransformer implements IAnnotationTransformer {
+
+    // What @Test(retryAnalyzer) defaults to, read from the annotation rather than named
+    private static final Object DEFAULT_RETRY_ANALYZER = defaultRetryAnalyzer();
+
+    @Override
+    @SuppressWarnings("rawtypes") // IAnnotationTransformer declares raw Class and Constructor
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor,
+            Method testMethod) {
+        Class<?> analyzer = annotation.getRetryAnalyzerClass();
+        if (analyzer == null || analyzer.equals(DEFAULT_RETRY_ANALYZER)) {
+            annotation.setRetryAnalyzer(InfrastructureRetryAnalyzer.class);
+        }
+    }
+
+    private static Object defaultRetryAnalyzer() {
+        try {
+            return Test.class.getMethod("retryAnalyzer").getDefaultValue();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("@Test has no retryAnalyzer attribute", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.aysa.automation.listeners;
+
+import com.aysa.automation.utils.StepProfiler;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Exports the per-step latency histograms collected by {@link StepProfiler} at suite end.
+ */
+public class StepTimingReporter implements ISuiteListener {
+
+    private static final String OUTPUT_FILE = "step-timings.json";
+
+    @Override
+    public void onStart(ISuite suite) {
+        StepProfiler.reset();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        StepProfiler.writeReport(OUTPUT_FILE);
+    }
+}
@@ -1,36 +1,78 @@
 package com.aysa.automation.listeners;
 
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.data.TestData;
+import com.google.gson.stream.JsonWriter;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Custom TestNG listener that writes test results to an output file.
+ * Custom TestNG listener that writes test results to output files.
+ *
+ * Each result is appended to test-results.jsonl the moment it completes (see
+ * {@link ResultLog}); the callbacks only bump lock-free counters and enqueue,
+ * so parallel device threads never wait on each other. At the end of the run
+ * test-results.txt, a JUnit XML report and a JSON report are derived from that
+ * log, sorted by test method and case ID so they are identical however the
+ * threads interleaved. Only an offset index is kept in memory; entries are read
+ * back from the log one at a time.
+ * With suite.resume=true the log is continued rather than replaced, and a case
+ * logged more than once is reported with its latest result.
  */
 public class TestResultReporter implements ITestListener {
 
     private static final String OUTPUT_FILE = "test-results.txt";
-    private List<TestResultEntry> results = new ArrayList<>();
-    private long suiteStartTime;
-    private int passCount = 0;
-    private int failCount = 0;
-    private int skipCount = 0;
+    private static final String JUNIT_FILE = "test-results.xml";
+    private static final String JSON_FILE = "test-results.json";
+
+    private static final Comparator<ResultLog.Position> REPORT_ORDER = Comparator
+            .comparing((ResultLog.Position position) -> String.valueOf(position.method))
+            .thenComparing(position -> position.caseId, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(position -> String.valueOf(position.test))
+            .thenComparingLong(position -> position.offset);
+
+    private final LongAdder passCount = new LongAdder();
+    private final LongAdder failCount = new LongAdder();
+    private final LongAdder skipCount = new LongAdder();
+    private volatile ResultLog log;
+    private volatile long suiteStartTime;
 
     @Override
-    public void onStart(ITestContext context) {
+    public synchronized void onStart(ITestContext context) {
         suiteStartTime = System.currentTimeMillis();
-        results.clear();
-        passCount = 0;
-        failCount = 0;
-        skipCount = 0;
+        passCount.reset();
+        failCount.reset();
+        skipCount.reset();
+        try {
+            // A resumed run keeps the earlier entries so the reports cover both runs
+            log = new ResultLog(Paths.get(ResultLog.FILE), AppConfig.getInstance().isResumeRun());
+        } catch (IOException e) {
+            System.err.println("Failed to open result log: " + e.getMessage());
+        }
     }
 
     @Override
@@ -40,114 +82,276 @@ public class TestResultReporter implements ITestListener {
 
     @Override
     public void onTestSuccess(ITestResult result) {
-        passCount++;
-        results.add(new TestResultEntry(
-            getTestName(result),
-            "PASS",
-            result.getEndMillis() - result.getStartMillis(),
-            null
-        ));
+        passCount.increment();
+        append(result, "PASS", result.getEndMillis() - result.getStartMillis(), null);
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
-        failCount++;
         String errorMessage = result.getThrowable() != null
             ? result.getThrowable().getMessage()
             : "Unknown error";
-        results.add(new TestResultEntry(
-            getTestName(result),
-            "FAIL",
-            result.getEndMillis() - result.getStartMillis(),
-            errorMessage
-        ));
+        failCount.increment();
+        append(result, "FAIL", result.getEndMillis() - result.getStartMillis(), errorMessage);
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
-        skipCount++;
+        if (result.wasRetried()) {
+            // The failed attempt before an infrastructure retry; the retry reports the case
+            System.out.println(">>> Retrying " + getTestName(result) + ": " + result.getThrowable());
+            return;
+        }
         String reason = result.getThrowable() != null
             ? result.getThrowable().getMessage()
             : "Skipped";
-        results.add(new TestResultEntry(
-            getTestName(result),
-            "SKIP",
-            0,
-            reason
-        ));
+        skipCount.increment();
+        append(result, "SKIP", 0, reason);
     }
 
     @Override
-    public void onFinish(ITestContext context) {
-        writeResultsToFile();
+    public synchronized void onFinish(ITestContext context) {
+        try {
+            if (log != null) {
+                log.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close result log: " + e.getMessage());
+        }
+        System.out.println(String.format("%n>>> This run: %d passed, %d failed, %d skipped",
+            passCount.sum(), failCount.sum(), skipCount.sum()));
+        writeReports(Paths.get(ResultLog.FILE), System.currentTimeMillis() - suiteStartTime);
+        recordHistory(Paths.get(ResultLog.FILE), suiteStartTime);
+    }
+
+    /**
+     * Appends this run's results (the latest per case, leaving out entries an earlier,
+     * resumed run already logged) to the cross-run {@link ResultHistory}.
+     */
+    static void recordHistory(Path logFile, long runStartTime) {
+        Map<String, ResultLog.Entry> latest = new LinkedHashMap<>();
+        try {
+            ResultLog.forEach(logFile, entry -> {
+                if (entry.finishedAt >= runStartTime && entry.caseKey() != null) {
+                    latest.remove(entry.caseKey());
+                    latest.put(entry.caseKey(), entry);
+                }
+            });
+            ResultHistory.open(Paths.get(AppConfig.getInstance().getResultHistoryPath()))
+                    .appendRun(runStartTime, new ArrayList<>(latest.values()));
+        } catch (IOException e) {
+            System.err.println("Failed to record run history: " + e.getMessage());
+        }
+    }
+
+    private void append(ITestResult result, String status, long duration, String errorMessage) {
+        ResultLog.Entry entry = new ResultLog.Entry();
+        entry.className = result.getTestClass().getName();
+        entry.method = result.getMethod().getMethodName();
+        entry.test = getTestName(result);
+        entry.status = status;
+        entry.durationMs = duration;
+        entry.error = errorMessage;
+        entry.cached = result.getAttribute("cached") != null;
+        entry.finishedAt = System.currentTimeMillis();
+        entry.appVersion = (String) result.getAttribute("appVersion");
+        entry.detected = detectedDiseases(result);
+        Object[] params = result.getParameters();
+        if (params != null && params.length > 0 && params[0] instanceof TestData) {
+            TestData testData = (TestData) params[0];
+            entry.caseId = testData.getId();
+            entry.folder = testData.getFolderName();
+            entry.image = testData.getImageName();
+        }
+        ResultLog current = log;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.append(entry);
+        } catch (IOException e) {
+            System.err.println("Failed to log result of " + entry.test + ": " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> detectedDiseases(ITestResult result) {
+        Object detected = result.getAttribute("detectedDiseases");
+        return detected instanceof List ? new ArrayList<>((List<String>) detected) : null;
     }
 
     private String getTestName(ITestResult result) {
+        String name = result.getMethod().getMethodName();
         Object[] params = result.getParameters();
         if (params != null && params.length > 0) {
-            return result.getMethod().getMethodName() + " - " + params[0].toString();
-        }
-        return result.getMethod().getMethodName();
-    }
-
-    private void writeResultsToFile() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(OUTPUT_FILE))) {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            String timestamp = dateFormat.format(new Date());
-            long totalDuration = System.currentTimeMillis() - suiteStartTime;
-
-            // Header
-            writer.println("================================================================================");
-            writer.println("                    AYSA DISEASE DETECTION TEST RESULTS");
-            writer.println("================================================================================");
-            writer.println();
-            writer.println("Run Date: " + timestamp);
-            writer.println("Total Duration: " + formatDuration(totalDuration));
-            writer.println();
-
-            // Summary
-            writer.println("--------------------------------------------------------------------------------");
-            writer.println("                              SUMMARY");
-            writer.println("--------------------------------------------------------------------------------");
-            writer.println(String.format("  Total Tests: %d", passCount + failCount + skipCount));
-            writer.println(String.format("  Passed:      %d", passCount));
-            writer.println(String.format("  Failed:      %d", failCount));
-            writer.println(String.format("  Skipped:     %d", skipCount));
-            writer.println(String.format("  Pass Rate:   %.1f%%",
-                (passCount + failCount) > 0 ? (passCount * 100.0 / (passCount + failCount)) : 0));
-            writer.println();
-
-            // Detailed Results
-            writer.println("--------------------------------------------------------------------------------");
-            writer.println("                           DETAILED RESULTS");
-            writer.println("--------------------------------------------------------------------------------");
-            writer.println();
-
-            for (TestResultEntry entry : results) {
-                String statusIcon = getStatusIcon(entry.status);
-                writer.println(String.format("%s [%s] %s", statusIcon, entry.status, entry.testName));
-                if (entry.duration > 0) {
-                    writer.println(String.format("       Duration: %s", formatDuration(entry.duration)));
-                }
-                if (entry.errorMessage != null && !entry.errorMessage.isEmpty()) {
-                    writer.println(String.format("       Error: %s", entry.errorMessage));
-                }
-                writer.println();
-            }
-
-            // Footer
-            writer.println("================================================================================");
-            writer.println("                              END OF REPORT");
-            writer.println("================================================================================");
+            name += " - " + params[0].toString();
+        }
+        if (result.getAttribute("cached") != null) {
+            name += " (cached)";
+        }
+        return name;
+    }
 
-            System.out.println("\n>>> Test results saved to: " + OUTPUT_FILE);
+    // ==================== Derived reports ====================
 
+    /**
+     * Derives the text, JUnit XML and JSON reports from a result log: one pass
+     * indexes and counts the entries, then entries are read back by offset in report order.
+     */
+    static void writeReports(Path logFile, long totalDuration) {
+        List<ResultLog.Position> positions;
+        try {
+            positions = latestPerCase(ResultLog.index(logFile));
         } catch (IOException e) {
+            System.err.println("Failed to read result log: " + e.getMessage());
+            return;
+        }
+        positions.sort(REPORT_ORDER);
+        Summary summary = new Summary();
+        positions.forEach(summary::add);
+
+        try (RandomAccessFile source = new RandomAccessFile(logFile.toFile(), "r");
+             PrintWriter text = new PrintWriter(new FileWriter(OUTPUT_FILE));
+             Writer xmlOut = Files.newBufferedWriter(Paths.get(JUNIT_FILE), StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(Files.newBufferedWriter(Paths.get(JSON_FILE), StandardCharsets.UTF_8))) {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(xmlOut);
+            json.setIndent("  ");
+
+            startTextReport(text, summary, totalDuration);
+            startJUnitReport(xml, summary, totalDuration);
+            startJsonReport(json, summary, totalDuration);
+
+            for (ResultLog.Position position : positions) {
+                ResultLog.Entry entry = ResultLog.readAt(source, position);
+                writeTextEntry(text, entry);
+                writeJUnitEntry(xml, entry);
+                writeJsonEntry(json, entry);
+            }
+
+            endTextReport(text);
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+            json.endArray();
+            json.endObject();
+
+            System.out.println("\n>>> Test results saved to: " + OUTPUT_FILE + ", " + JUNIT_FILE + ", " + JSON_FILE);
+        } catch (IOException | XMLStreamException e) {
             System.err.println("Failed to write test results: " + e.getMessage());
         }
     }
 
-    private String getStatusIcon(String status) {
+    private static void startTextReport(PrintWriter writer, Summary summary, long totalDuration) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        String timestamp = dateFormat.format(new Date());
+
+        // Header
+        writer.println("================================================================================");
+        writer.println("                    AYSA DISEASE DETECTION TEST RESULTS");
+        writer.println("================================================================================");
+        writer.println();
+        writer.println("Run Date: " + timestamp);
+        writer.println("Total Duration: " + formatDuration(totalDuration));
+        writer.println();
+
+        // Summary
+        writer.println("--------------------------------------------------------------------------------");
+        writer.println("                              SUMMARY");
+        writer.println("--------------------------------------------------------------------------------");
+        writer.println(String.format("  Total Tests: %d", summary.total()));
+        writer.println(String.format("  Passed:      %d", summary.passCount));
+        writer.println(String.format("  Failed:      %d", summary.failCount));
+        writer.println(String.format("  Skipped:     %d", summary.skipCount));
+        writer.println(String.format("  Pass Rate:   %.1f%%", summary.passRate()));
+        writer.println();
+
+        // Detailed Results
+        writer.println("--------------------------------------------------------------------------------");
+        writer.println("                           DETAILED RESULTS");
+        writer.println("--------------------------------------------------------------------------------");
+        writer.println();
+    }
+
+    private static void writeTextEntry(PrintWriter writer, ResultLog.Entry entry) {
+        String statusIcon = getStatusIcon(entry.status);
+        writer.println(String.format("%s [%s] %s", statusIcon, entry.status, entry.test));
+        if (entry.durationMs > 0) {
+            writer.println(String.format("       Duration: %s", formatDuration(entry.durationMs)));
+        }
+        if (entry.error != null && !entry.error.isEmpty()) {
+            writer.println(String.format("       Error: %s", entry.error));
+        }
+        writer.println();
+    }
+
+    private static void endTextReport(PrintWriter writer) {
+        // Footer
+        writer.println("================================================================================");
+        writer.println("                              END OF REPORT");
+        writer.println("================================================================================");
+    }
+
+    private static void startJUnitReport(XMLStreamWriter xml, Summary summary, long totalDuration)
+            throws XMLStreamException {
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("testsuite");
+        xml.writeAttribute("name", "Aysa Disease Detection Test Suite");
+        xml.writeAttribute("tests", String.valueOf(summary.total()));
+        xml.writeAttribute("failures", String.valueOf(summary.failCount));
+        xml.writeAttribute("errors", "0");
+        xml.writeAttribute("skipped", String.valueOf(summary.skipCount));
+        xml.writeAttribute("time", seconds(totalDuration));
+    }
+
+    private static void writeJUnitEntry(XMLStreamWriter xml, ResultLog.Entry entry) throws XMLStreamException {
+        xml.writeStartElement("testcase");
+        xml.writeAttribute("classname", String.valueOf(entry.className));
+        xml.writeAttribute("name", entry.test);
+        xml.writeAttribute("time", seconds(entry.durationMs));
+        if ("FAIL".equals(entry.status)) {
+            xml.writeEmptyElement("failure");
+            xml.writeAttribute("message", String.valueOf(entry.error));
+        } else if ("SKIP".equals(entry.status)) {
+            xml.writeEmptyElement("skipped");
+            xml.writeAttribute("message", String.valueOf(entry.error));
+        }
+        xml.writeEndElement();
+    }
+
+    private static void startJsonReport(JsonWriter json, Summary summary, long totalDuration) throws IOException {
+        json.beginObject();
+        json.name("summary").beginObject();
+        json.name("total").value(summary.total());
+        json.name("passed").value(summary.passCount);
+        json.name("failed").value(summary.failCount);
+        json.name("skipped").value(summary.skipCount);
+        json.name("passRate").value(Math.round(summary.passRate() * 10) / 10.0);
+        json.name("durationMs").value(totalDuration);
+        json.endObject();
+        json.name("results").beginArray();
+    }
+
+    private static void writeJsonEntry(JsonWriter json, ResultLog.Entry entry) throws IOException {
+        json.beginObject();
+        json.name("test").value(entry.test);
+        json.name("method").value(entry.method);
+        if (entry.caseId != null) {
+            json.name("caseId").value(entry.caseId);
+            json.name("folder").value(entry.folder);
+            json.name("image").value(entry.image);
+        }
+        json.name("status").value(entry.status);
+        json.name("durationMs").value(entry.durationMs);
+        if (entry.error != null) {
+            json.name("error").value(entry.error);
+        }
+        if (entry.cached) {
+            json.name("cached").value(true);
+        }
+        json.endObject();
+    }
+
+    private static String getStatusIcon(String status) {
         switch (status) {
             case "PASS": return "[PASS]";
             case "FAIL": return "[FAIL]";
@@ -156,7 +360,7 @@ public class TestResultReporter implements ITestListener {
         }
     }
 
-    private String formatDuration(long millis) {
+    private static String formatDuration(long millis) {
         long seconds = millis / 1000;
         long minutes = seconds / 60;
         seconds = seconds % 60;
@@ -166,17 +370,51 @@ public class TestResultReporter implements ITestListener {
         return String.format("%d.%ds", seconds, (millis % 1000) / 100);
     }
 
-    private static class TestResultEntry {
-        String testName;
-        String status;
-        long duration;
-        String errorMessage;
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    /**
+     * Drops entries of cases that were logged again later (a resumed run re-running a skipped case).
+     */
+    private static List<ResultLog.Position> latestPerCase(List<ResultLog.Position> positions) {
+        Map<String, Long> latest = new HashMap<>();
+        for (ResultLog.Position position : positions) {
+            if (position.caseKey != null) {
+                latest.put(position.caseKey, position.offset);
+            }
+        }
+        List<ResultLog.Position> kept = new ArrayList<>();
+        for (ResultLog.Position position : positions) {
+            if (position.caseKey == null || latest.get(position.caseKey) == position.offset) {
+                kept.add(position);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Pass/fail/skip counts of the reported entries.
+     */
+    private static class Summary {
+        int passCount;
+        int failCount;
+        int skipCount;
+
+        void add(ResultLog.Position position) {
+            switch (position.status) {
+                case "PASS": passCount++; break;
+                case "FAIL": failCount++; break;
+                default: skipCount++;
+            }
+        }
+
+        int total() {
+            return passCount + failCount + skipCount;
+        }
 
-        TestResultEntry(String testName, String status, long duration, String errorMessage) {
-            this.testName = testName;
-            this.status = status;
-            this.duration = duration;
-            this.errorMessage = errorMessage;
+        double passRate() {
+            return (passCount + failCount) > 0 ? (passCount * 100.0 / (passCount + failCount)) : 0;
         }
     }
 }
@@ -3,6 +3,7 @@ package com.aysa.automation.pages;
 import com.aysa.automation.utils.WaitUtils;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -13,17 +14,31 @@ import java.time.Duration;
 
 public abstract class BasePage {
 
+    // Upper bound for a screen transition to start and then settle after a click
+    protected static final Duration TRANSITION_TIMEOUT = Duration.ofSeconds(10);
+
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     protected AndroidDriver driver;
     protected WebDriverWait wait;
     protected WaitUtils waitUtils;
+    protected LocatorResolver locatorResolver;
+    private final CompilingFieldDecorator fields;
 
+    /**
+     * Pages are pooled per session, so get them from {@link Pages#get(AndroidDriver, Class)}.
+     */
     public BasePage(AndroidDriver driver) {
         this.driver = driver;
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(30));
         this.waitUtils = new WaitUtils(driver);
-        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(10)), this);
+        this.locatorResolver = new LocatorResolver(driver, waitUtils);
+        // No lookup grace period on fields: positive waits go through waitUtils with explicit budgets.
+        // XPath fields are looked up natively where LocatorCompiler has an equivalent,
+        // and element handles are kept until they go stale
+        this.fields = new CompilingFieldDecorator(driver, waitUtils,
+                new AppiumFieldDecorator(driver, Duration.ZERO));
+        PageFactory.initElements(fields, this);
     }
 
     public abstract boolean isPageDisplayed();
@@ -34,6 +49,40 @@ public abstract class BasePage {
         logger.debug("Clicked on element: {}", element);
     }
 
+    protected WebElement waitForClickable(By locator, Duration timeout) {
+        return waitUtils.waitForElementToBeClickable(locator, timeout);
+    }
+
+    /**
+     * Finds the element behind a fallback chain, trying the last winning locator first.
+     */
+    protected WebElement resolve(LocatorChain chain) {
+        return locatorResolver.resolve(chain, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Clicks an element and returns once the screen has changed and settled.
+     * Use where the next screen reuses the same locators (CONTINUE, Yes/No),
+     * so the next wait can't match the outgoing screen.
+     */
+    protected void clickAndAwaitTransition(WebElement element) {
+        String before = driver.getPageSource();
+        element.click();
+        logger.debug("Clicked on element, waiting for transition: {}", element);
+        if (waitUtils.waitForHierarchyChange(before, TRANSITION_TIMEOUT)) {
+            waitUtils.waitForHierarchyStable(TRANSITION_TIMEOUT);
+        }
+        forgetElements();
+    }
+
+    /**
+     * Drops the element handles cached by this page's fields, so the next use finds
+     * them on the current screen instead of finding out they are stale.
+     */
+    protected void forgetElements() {
+        fields.forgetElements();
+    }
+
     protected void enterText(WebElement element, String text) {
         waitUtils.waitForElementToBeVisible(element);
         element.clear();
@@ -47,10 +96,16 @@ public abstract class BasePage {
     }
 
     protected boolean isDisplayed(WebElement element) {
-        try {
-            return element.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return waitUtils.probe(() -> {
+            try {
+                return element.isDisplayed();
+            } catch (Exception e) {
+                return false;
+            }
+        });
+    }
+
+    protected boolean isPresent(By locator) {
+        return waitUtils.isPresent(locator);
     }
 }
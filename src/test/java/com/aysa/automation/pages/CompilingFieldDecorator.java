@@ -0,0 +1,216 @@
+package com.aysa.automation.pages;
+
+import com.aysa.automation.utils.WaitUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.FieldDecorator;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementListHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page-object field decorator for single-strategy {@code @AndroidFindBy} fields. XPath
+ * fields are looked up through {@link LocatorCompiler}, so they use native UiAutomator2
+ * locators where possible. Fields it can't handle are left to the wrapped
+ * {@link AppiumFieldDecorator}.
+ *
+ * A WebElement field keeps the handle it resolved, so a wait that polls isDisplayed()
+ * and isEnabled() followed by click() costs one find instead of three. Staleness is
+ * detected by the call that hits it: a cached handle the server reports stale is
+ * re-resolved once and the call repeated. Handles are dropped after a click, which
+ * usually changes the screen, and by {@link #forgetElements()} on a known transition.
+ * List fields are found afresh on every use, since their contents change.
+ *
+ * Like the Appium decorator with a zero timeout, lookups don't wait: positive waits
+ * go through {@link WaitUtils} with explicit budgets.
+ */
+public class CompilingFieldDecorator implements FieldDecorator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompilingFieldDecorator.class);
+
+    private final SearchContext context;
+    private final WaitUtils waitUtils;
+    private final FieldDecorator fallback;
+    private final List<CachingLocator> cachingLocators = new ArrayList<>();
+
+    public CompilingFieldDecorator(SearchContext context, WaitUtils waitUtils, FieldDecorator fallback) {
+        this.context = context;
+        this.waitUtils = waitUtils;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Object decorate(ClassLoader loader, Field field) {
+        By by = locatorFor(field.getAnnotation(AndroidFindBy.class));
+        if (by == null) {
+            return fallback.decorate(loader, field);
+        }
+        if (WebElement.class.equals(field.getType())) {
+            CachingLocator locator = new CachingLocator(by);
+            cachingLocators.add(locator);
+            return Proxy.newProxyInstance(loader,
+                    new Class<?>[] {WebElement.class, WrapsElement.class, Locatable.class},
+                    new CachedElementHandler(locator));
+        }
+        if (isWebElementList(field)) {
+            return Proxy.newProxyInstance(loader, new Class<?>[] {List.class},
+                    new LocatingElementListHandler(new CachingLocator(by)));
+        }
+        return fallback.decorate(loader, field);
+    }
+
+    /**
+     * Drops every cached element handle, e.g. once the screen has changed.
+     */
+    public void forgetElements() {
+        for (CachingLocator locator : cachingLocators) {
+            locator.invalidate();
+        }
+    }
+
+    /**
+     * Returns the locator of a field using exactly one plain strategy, or null.
+     */
+    private static By locatorFor(AndroidFindBy findBy) {
+        if (findBy == null || !findBy.tagName().isEmpty()
+                || !findBy.androidDataMatcher().isEmpty() || !findBy.androidViewMatcher().isEmpty()) {
+            return null;
+        }
+        List<By> strategies = new ArrayList<>();
+        if (!findBy.xpath().isEmpty()) {
+            strategies.add(LocatorCompiler.xpath(findBy.xpath()));
+        }
+        if (!findBy.id().isEmpty()) {
+            strategies.add(AppiumBy.id(findBy.id()));
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            strategies.add(AppiumBy.accessibilityId(findBy.accessibility()));
+        }
+        if (!findBy.className().isEmpty()) {
+            strategies.add(AppiumBy.className(findBy.className()));
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            strategies.add(AppiumBy.androidUIAutomator(findBy.uiAutomator()));
+        }
+        return strategies.size() == 1 ? strategies.get(0) : null;
+    }
+
+    private static boolean isWebElementList(Field field) {
+        if (!List.class.isAssignableFrom(field.getType())) {
+            return false;
+        }
+        Type type = field.getGenericType();
+        return type instanceof ParameterizedType
+                && WebElement.class.equals(((ParameterizedType) type).getActualTypeArguments()[0]);
+    }
+
+    /**
+     * Keeps the field's element once found, with the implicit wait disabled for lookups.
+     */
+    private final class CachingLocator implements ElementLocator {
+        private final By by;
+        private volatile WebElement cached;
+
+        CachingLocator(By by) {
+            this.by = by;
+        }
+
+        @Override
+        public WebElement findElement() {
+            WebElement element = cached;
+            if (element == null) {
+                element = waitUtils.probe(() -> context.findElement(by));
+                cached = element;
+            }
+            return element;
+        }
+
+        @Override
+        public List<WebElement> findElements() {
+            return waitUtils.probe(() -> context.findElements(by));
+        }
+
+        boolean isCached() {
+            return cached != null;
+        }
+
+        void invalidate() {
+            cached = null;
+        }
+
+        @Override
+        public String toString() {
+            return by.toString();
+        }
+    }
+
+    /**
+     * Forwards calls to the cached element, re-resolving it when it has gone stale.
+     */
+    private static final class CachedElementHandler implements InvocationHandler {
+        private final CachingLocator locator;
+
+        CachedElementHandler(CachingLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean cached = locator.isCached();
+            WebElement element;
+            try {
+                element = locator.findElement();
+            } catch (NoSuchElementException e) {
+                if ("toString".equals(method.getName())) {
+                    return "Proxy element for: " + locator;
+                }
+                throw e;
+            }
+            if ("getWrappedElement".equals(method.getName())) {
+                return element;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                if (cached && e.getCause() instanceof StaleElementReferenceException) {
+                    logger.debug("Cached element for {} is stale, finding it again", locator);
+                    locator.invalidate();
+                    return invoke(proxy, method, args);
+                }
+                throw e.getCause();
+            }
+
+            String name = method.getName();
+            if (cached && "isDisplayed".equals(name) && Boolean.FALSE.equals(result)) {
+                // The handle may be a view from an earlier screen that is still attached but hidden
+                locator.invalidate();
+                return invoke(proxy, method, args);
+            }
+            if ("click".equals(name) || "submit".equals(name)) {
+                locator.invalidate();
+            }
+            return result;
+        }
+    }
+}
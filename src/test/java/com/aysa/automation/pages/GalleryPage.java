@@ -5,6 +5,7 @@ import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.WebElement;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -49,13 +50,10 @@ public class GalleryPage extends BasePage {
 
     @Override
     public boolean isPageDisplayed() {
-        // Wait a moment for gallery to load
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException ignored) {
-        }
-
-        return isDisplayed(imageRecyclerView) || !galleryImages.isEmpty();
+        // Gallery is ready once its grid or first image shows up
+        return waitUtils.waitForAnyPresent(Duration.ofSeconds(10),
+                AppiumBy.id("com.visualdx.aysa:id/image_recycler_view"),
+                AppiumBy.id("com.visualdx.aysa:id/image"));
     }
 
     public ImageUploadPage selectImageByName(String imageName) {
@@ -69,7 +67,7 @@ public class GalleryPage extends BasePage {
                     )
             );
             click(imageElement);
-            return new ImageUploadPage(driver);
+            return Pages.get(driver, ImageUploadPage.class);
         } catch (Exception e) {
             logger.debug("Could not find image by description, trying text: {}", e.getMessage());
         }
@@ -83,7 +81,7 @@ public class GalleryPage extends BasePage {
                     )
             );
             click(imageElement);
-            return new ImageUploadPage(driver);
+            return Pages.get(driver, ImageUploadPage.class);
         } catch (Exception e) {
             logger.debug("Could not find image by text: {}", e.getMessage());
         }
@@ -107,7 +105,7 @@ public class GalleryPage extends BasePage {
         }
 
         click(images.get(index));
-        return new ImageUploadPage(driver);
+        return Pages.get(driver, ImageUploadPage.class);
     }
 
     private List<WebElement> getAvailableImages() {
@@ -124,19 +122,15 @@ public class GalleryPage extends BasePage {
 
         if (isDisplayed(albumSpinner)) {
             click(albumSpinner);
-            // Wait for dropdown to appear
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException ignored) {
-            }
-            // Try to find and click the album
+            // Wait for the dropdown to show the album, then click it
             try {
-                WebElement albumOption = driver.findElement(
+                WebElement albumOption = waitForClickable(
                         AppiumBy.androidUIAutomator(
                                 String.format("new UiSelector().textContains(\"%s\")", albumName)
-                        )
+                        ),
+                        Duration.ofSeconds(5)
                 );
-                click(albumOption);
+                clickAndAwaitTransition(albumOption);
             } catch (Exception e) {
                 logger.warn("Could not find album: {}", albumName);
             }
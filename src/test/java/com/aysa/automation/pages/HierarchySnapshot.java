@@ -0,0 +1,137 @@
+package com.aysa.automation.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the UI hierarchy taken from a single page-source fetch.
+ * Lookups by resource-id, content-desc and visible text are answered locally,
+ * so verifying a screen costs one remote call instead of one per element.
+ */
+public class HierarchySnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(HierarchySnapshot.class);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, List<Node>> byResourceId = new HashMap<>();
+    private final Map<String, List<Node>> byContentDesc = new HashMap<>();
+    private final String searchText;
+
+    private HierarchySnapshot(String pageSource) {
+        StringBuilder text = new StringBuilder();
+        try {
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new InputSource(new StringReader(pageSource)));
+            NodeList elements = document.getElementsByTagName("*");
+            for (int i = 0; i < elements.getLength(); i++) {
+                Element element = (Element) elements.item(i);
+                Node node = new Node(
+                        element.getAttribute("class"),
+                        element.getAttribute("resource-id"),
+                        element.getAttribute("text"),
+                        element.getAttribute("content-desc"));
+                nodes.add(node);
+                index(byResourceId, node.resourceId, node);
+                index(byContentDesc, node.contentDesc, node);
+                text.append(node.text).append('\n').append(node.contentDesc).append('\n');
+            }
+        } catch (Exception e) {
+            // Fall back to plain substring search over the raw source
+            logger.warn("Could not parse page source, using raw text: {}", e.getMessage());
+            text.setLength(0);
+            text.append(pageSource);
+        }
+        this.searchText = text.toString().toLowerCase();
+    }
+
+    public static HierarchySnapshot of(String pageSource) {
+        return new HierarchySnapshot(pageSource);
+    }
+
+    public static HierarchySnapshot capture(AndroidDriver driver) {
+        return new HierarchySnapshot(driver.getPageSource());
+    }
+
+    /**
+     * Returns the non-empty texts of all elements with the given resource-id, in screen order.
+     */
+    public List<String> textsOf(String resourceId) {
+        List<String> texts = new ArrayList<>();
+        for (Node node : byResourceId.getOrDefault(resourceId, Collections.emptyList())) {
+            if (!node.text.isEmpty()) {
+                texts.add(node.text);
+            }
+        }
+        return texts;
+    }
+
+    public boolean hasResourceId(String resourceId) {
+        return byResourceId.containsKey(resourceId);
+    }
+
+    public boolean hasContentDesc(String contentDesc) {
+        return byContentDesc.containsKey(contentDesc);
+    }
+
+    public boolean hasClassName(String className) {
+        for (Node node : nodes) {
+            if (node.className.equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasText(String className, String text) {
+        for (Node node : nodes) {
+            if (node.text.equals(text) && (className == null || node.className.equals(className))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Case-insensitive substring match over all visible texts and content descriptions.
+     */
+    public boolean containsText(String needle) {
+        return searchText.contains(needle.toLowerCase());
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    private static void index(Map<String, List<Node>> index, String key, Node node) {
+        if (!key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(node);
+        }
+    }
+
+    private static class Node {
+        final String className;
+        final String resourceId;
+        final String text;
+        final String contentDesc;
+
+        Node(String className, String resourceId, String text, String contentDesc) {
+            this.className = className;
+            this.resourceId = resourceId;
+            this.text = text;
+            this.contentDesc = contentDesc;
+        }
+    }
+}
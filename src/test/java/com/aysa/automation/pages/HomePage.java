@@ -1,5 +1,6 @@
 package com.aysa.automation.pages;
 
+import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.WebElement;
@@ -22,15 +23,12 @@ public class HomePage extends BasePage {
     @AndroidFindBy(id = "com.visualdx.aysa:id/home_title")
     private WebElement homeTitle;
 
-    @AndroidFindBy(accessibility = "Upload Image")
-    private WebElement uploadImageAccessibility;
-
-    // Alternative locators using XPath
-    @AndroidFindBy(xpath = "//android.widget.Button[contains(@text, 'Upload')]")
-    private WebElement uploadButtonByText;
-
-    @AndroidFindBy(xpath = "//android.widget.Button[contains(@text, 'Gallery')]")
-    private WebElement galleryButtonByText;
+    // Upload button locators across app builds, including XPath alternatives
+    private static final LocatorChain UPLOAD_BUTTON = new LocatorChain("home.uploadImage")
+            .or("id", AppiumBy.id("com.visualdx.aysa:id/btn_upload_image"))
+            .or("accessibility", AppiumBy.accessibilityId("Upload Image"))
+            .or("uploadText", LocatorCompiler.xpath("//android.widget.Button[contains(@text, 'Upload')]"))
+            .or("galleryText", LocatorCompiler.xpath("//android.widget.Button[contains(@text, 'Gallery')]"));
 
     public HomePage(AndroidDriver driver) {
         super(driver);
@@ -51,26 +49,20 @@ public class HomePage extends BasePage {
     public GalleryPage clickUploadImage() {
         logger.info("Clicking upload image button");
 
-        // Try multiple locator strategies
-        if (isDisplayed(uploadImageButton)) {
-            click(uploadImageButton);
-        } else if (isDisplayed(uploadImageAccessibility)) {
-            click(uploadImageAccessibility);
-        } else if (isDisplayed(uploadButtonByText)) {
-            click(uploadButtonByText);
-        } else if (isDisplayed(galleryButtonByText)) {
-            click(galleryButtonByText);
-        } else {
-            throw new RuntimeException("Upload image button not found");
+        // Try multiple locator strategies, last winner first
+        try {
+            click(resolve(UPLOAD_BUTTON));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Upload image button not found", e);
         }
 
-        return new GalleryPage(driver);
+        return Pages.get(driver, GalleryPage.class);
     }
 
     public ImageUploadPage clickTakePhoto() {
         logger.info("Clicking take photo button");
         click(takePhotoButton);
-        return new ImageUploadPage(driver);
+        return Pages.get(driver, ImageUploadPage.class);
     }
 
     public void waitForPageLoad() {
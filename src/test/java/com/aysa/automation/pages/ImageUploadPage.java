@@ -1,5 +1,6 @@
 package com.aysa.automation.pages;
 
+import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.WebElement;
@@ -24,18 +25,14 @@ public class ImageUploadPage extends BasePage {
     @AndroidFindBy(id = "com.visualdx.aysa:id/btn_retake")
     private WebElement retakeButton;
 
-    @AndroidFindBy(id = "com.visualdx.aysa:id/btn_submit")
-    private WebElement submitButton;
-
-    // Alternative locators using XPath
-    @AndroidFindBy(xpath = "//android.widget.Button[contains(@text, 'Analyze')]")
-    private WebElement analyzeButtonByText;
-
-    @AndroidFindBy(xpath = "//android.widget.Button[contains(@text, 'Submit')]")
-    private WebElement submitButtonByText;
-
-    @AndroidFindBy(xpath = "//android.widget.Button[contains(@text, 'Confirm')]")
-    private WebElement confirmButtonByText;
+    // Analyze/submit button locators across app builds, including XPath alternatives
+    private static final LocatorChain ANALYZE_BUTTON = new LocatorChain("upload.analyze")
+            .or("analyzeId", AppiumBy.id("com.visualdx.aysa:id/btn_analyze"))
+            .or("submitId", AppiumBy.id("com.visualdx.aysa:id/btn_submit"))
+            .or("confirmId", AppiumBy.id("com.visualdx.aysa:id/btn_confirm"))
+            .or("analyzeText", LocatorCompiler.xpath("//android.widget.Button[contains(@text, 'Analyze')]"))
+            .or("submitText", LocatorCompiler.xpath("//android.widget.Button[contains(@text, 'Submit')]"))
+            .or("confirmText", LocatorCompiler.xpath("//android.widget.Button[contains(@text, 'Confirm')]"));
 
     // Loading indicator
     @AndroidFindBy(id = "com.visualdx.aysa:id/progress_bar")
@@ -63,61 +60,36 @@ public class ImageUploadPage extends BasePage {
     public ResultsPage clickAnalyze() {
         logger.info("Clicking analyze button");
 
-        // Try different button locators
-        if (isDisplayed(analyzeButton)) {
-            click(analyzeButton);
-        } else if (isDisplayed(submitButton)) {
-            click(submitButton);
-        } else if (isDisplayed(confirmButton)) {
-            click(confirmButton);
-        } else if (isDisplayed(analyzeButtonByText)) {
-            click(analyzeButtonByText);
-        } else if (isDisplayed(submitButtonByText)) {
-            click(submitButtonByText);
-        } else if (isDisplayed(confirmButtonByText)) {
-            click(confirmButtonByText);
-        } else {
-            throw new RuntimeException("Analyze/Submit button not found");
+        // Try different button locators, last winner first
+        try {
+            click(resolve(ANALYZE_BUTTON));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Analyze/Submit button not found", e);
         }
 
         // Wait for loading to complete
         waitForAnalysisToComplete();
 
-        return new ResultsPage(driver);
+        return Pages.get(driver, ResultsPage.class).awaitResults();
     }
 
     private void waitForAnalysisToComplete() {
         logger.info("Waiting for analysis to complete");
 
-        int maxWaitSeconds = 60;
-        int waitedSeconds = 0;
+        long start = System.currentTimeMillis();
+        boolean finished = waitUtils.waitUntil(
+                () -> !isDisplayed(progressBar) && !isDisplayed(progressBarGeneric), 60, 500);
 
-        // Wait for loading to start
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException ignored) {
-        }
-
-        // Wait for loading to finish
-        while (waitedSeconds < maxWaitSeconds) {
-            if (!isDisplayed(progressBar) && !isDisplayed(progressBarGeneric)) {
-                logger.info("Analysis completed after {} seconds", waitedSeconds);
-                return;
-            }
-
-            try {
-                Thread.sleep(1000);
-                waitedSeconds++;
-            } catch (InterruptedException ignored) {
-            }
+        if (finished) {
+            logger.info("Analysis completed after {} ms", System.currentTimeMillis() - start);
+        } else {
+            logger.warn("Analysis may not have completed within timeout");
         }
-
-        logger.warn("Analysis may not have completed within timeout");
     }
 
     public HomePage clickRetake() {
         logger.info("Clicking retake button");
         click(retakeButton);
-        return new HomePage(driver);
+        return Pages.get(driver, HomePage.class);
     }
 }
@@ -0,0 +1,53 @@
+package com.aysa.automation.pages;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered list of alternative locators for one logical element, e.g. an upload
+ * button whose id, accessibility label or text differs between app builds.
+ * Resolved by {@link LocatorResolver}, which remembers which strategy matched.
+ */
+public class LocatorChain {
+
+    private final String name;
+    private final Map<String, By> strategies = new LinkedHashMap<>();
+
+    public LocatorChain(String name) {
+        this.name = name;
+    }
+
+    public LocatorChain or(String strategyName, By locator) {
+        strategies.put(strategyName, locator);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the strategy names, with the preferred one (if known) moved to the front.
+     */
+    List<String> strategyOrder(String preferred) {
+        List<String> order = new ArrayList<>(strategies.keySet());
+        if (preferred != null && order.remove(preferred)) {
+            order.add(0, preferred);
+        }
+        return Collections.unmodifiableList(order);
+    }
+
+    By locator(String strategyName) {
+        return strategies.get(strategyName);
+    }
+
+    @Override
+    public String toString() {
+        return "LocatorChain[" + name + ": " + strategies.keySet() + "]";
+    }
+}
@@ -0,0 +1,349 @@
+package com.aysa.automation.pages;
+
+import com.aysa.automation.config.AppConfig;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns simple XPath locators into native UiAutomator2 ones. XPath makes the server
+ * dump and search the whole hierarchy on every lookup; a UiSelector, accessibility id
+ * or resource-id is matched by UiAutomator directly.
+ *
+ * Handles a single step, "//class" or "//*", with predicates on text, content-desc,
+ * resource-id, class and the boolean state attributes, compared with =, contains()
+ * or starts-with() and joined by "and". Anything else (nested paths, positions,
+ * "or", axes) stays XPath.
+ *
+ * The first locator.compare.samples matching lookups of each locator are repeated
+ * with the original XPath to time both; {@link #getSpeedups()} feeds the speedup report.
+ * A compiled locator that finds a different number of elements than its XPath is
+ * reported and replaced by the XPath for the rest of the run.
+ */
+public final class LocatorCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocatorCompiler.class);
+
+    private static final Pattern STEP = Pattern.compile("^//([\\w.$]+|\\*)((?:\\[[^\\[\\]]+\\])*)$");
+    private static final Pattern PREDICATE = Pattern.compile("\\[([^\\[\\]]+)\\]");
+    private static final Pattern CONDITION = Pattern.compile(
+            "^(?:@([\\w-]+)\\s*=\\s*(?:'([^']*)'|\"([^\"]*)\")"
+                    + "|(contains|starts-with)\\(\\s*@([\\w-]+)\\s*,\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*\\))$");
+    private static final Pattern AND = Pattern.compile("\\s+and\\s+");
+
+    private static final Map<String, By> compiled = new ConcurrentHashMap<>();
+    private static final Map<String, Speedup> speedups = new ConcurrentHashMap<>();
+
+    private LocatorCompiler() {
+    }
+
+    /**
+     * Native equivalent of an XPath locator, or the XPath itself where there is none.
+     */
+    public static By xpath(String xpath) {
+        return compiled.computeIfAbsent(xpath, LocatorCompiler::compile);
+    }
+
+    /**
+     * Lookup timings of every compiled locator sampled against its XPath so far, by XPath.
+     */
+    public static Map<String, Speedup> getSpeedups() {
+        return new TreeMap<>(speedups);
+    }
+
+    /**
+     * Writes the sampled native vs XPath lookup times per locator, largest gain first.
+     */
+    public static void writeReport(String fileName) {
+        List<Map.Entry<String, Speedup>> ordered = new ArrayList<>(getSpeedups().entrySet());
+        if (ordered.isEmpty()) {
+            return;
+        }
+        ordered.sort(Comparator.comparingDouble(
+                (Map.Entry<String, Speedup> entry) -> entry.getValue().getSpeedup()).reversed());
+
+        JsonObject report = new JsonObject();
+        report.addProperty("generatedAt", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        JsonObject locators = new JsonObject();
+        for (Map.Entry<String, Speedup> entry : ordered) {
+            Speedup speedup = entry.getValue();
+            JsonObject json = new JsonObject();
+            json.addProperty("compiledTo", speedup.getCompiledTo());
+            json.addProperty("samples", speedup.getSamples());
+            json.addProperty("nativeMs", Math.round(speedup.getNativeMillis() * 10) / 10.0);
+            json.addProperty("xpathMs", Math.round(speedup.getXpathMillis() * 10) / 10.0);
+            json.addProperty("speedup", Math.round(speedup.getSpeedup() * 100) / 100.0);
+            json.addProperty("mismatched", speedup.isMismatched());
+            locators.add(entry.getKey(), json);
+        }
+        report.add("locators", locators);
+
+        // Keys are XPaths, so leave their quotes and '=' readable
+        Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+        try (Writer writer = new FileWriter(fileName)) {
+            gson.toJson(report, writer);
+            System.out.println("\n>>> Locator speedups saved to: " + fileName);
+        } catch (IOException e) {
+            System.err.println("Failed to write locator speedups: " + e.getMessage());
+        }
+    }
+
+    private static By compile(String xpath) {
+        By target = translate(xpath.trim());
+        if (target == null) {
+            logger.debug("No native equivalent for {}, keeping XPath", xpath);
+            return AppiumBy.xpath(xpath);
+        }
+        logger.debug("Compiled {} to {}", xpath, target);
+        return new CompiledBy(xpath, target);
+    }
+
+    /**
+     * Returns the native locator for an XPath, or null if it has none.
+     */
+    static By translate(String xpath) {
+        Matcher step = STEP.matcher(xpath);
+        if (!step.matches()) {
+            return null;
+        }
+        String className = step.group(1).equals("*") ? null : step.group(1);
+
+        List<String[]> conditions = new ArrayList<>();
+        Matcher predicate = PREDICATE.matcher(step.group(2));
+        while (predicate.find()) {
+            for (String part : AND.split(predicate.group(1).trim())) {
+                Matcher condition = CONDITION.matcher(part.trim());
+                if (!condition.matches()) {
+                    return null;
+                }
+                if (condition.group(1) != null) {
+                    conditions.add(new String[] {
+                            "=", condition.group(1), firstNonNull(condition.group(2), condition.group(3))});
+                } else {
+                    conditions.add(new String[] {
+                            condition.group(4), condition.group(5), firstNonNull(condition.group(6), condition.group(7))});
+                }
+            }
+        }
+
+        // The two lookups UiAutomator2 answers without building a selector
+        if (className == null && conditions.size() == 1 && conditions.get(0)[0].equals("=")) {
+            String[] only = conditions.get(0);
+            if (only[1].equals("content-desc")) {
+                return AppiumBy.accessibilityId(only[2]);
+            }
+            if (only[1].equals("resource-id")) {
+                return AppiumBy.id(only[2]);
+            }
+        }
+
+        StringBuilder selector = new StringBuilder("new UiSelector()");
+        if (className != null) {
+            selector.append(".className(").append(quote(className)).append(')');
+        }
+        for (String[] condition : conditions) {
+            String method = selectorMethod(condition[0], condition[1], condition[2]);
+            if (method == null || condition[2].contains("\"") || condition[2].contains("\\")) {
+                return null;
+            }
+            selector.append('.').append(method);
+        }
+        if (conditions.isEmpty() && className == null) {
+            return null;
+        }
+        return AppiumBy.androidUIAutomator(selector.toString());
+    }
+
+    private static String selectorMethod(String operator, String attribute, String value) {
+        String name;
+        switch (attribute) {
+            case "text":
+                name = "text";
+                break;
+            case "content-desc":
+                name = "description";
+                break;
+            case "resource-id":
+                return operator.equals("=") ? "resourceId(" + quote(value) + ")" : null;
+            case "class":
+                return operator.equals("=") ? "className(" + quote(value) + ")" : null;
+            case "package":
+                return operator.equals("=") ? "packageName(" + quote(value) + ")" : null;
+            case "clickable":
+            case "enabled":
+            case "checked":
+            case "checkable":
+            case "selected":
+            case "focusable":
+            case "focused":
+            case "scrollable":
+            case "long-clickable":
+                if (!operator.equals("=") || !(value.equals("true") || value.equals("false"))) {
+                    return null;
+                }
+                String method = attribute.equals("long-clickable") ? "longClickable" : attribute;
+                return method + "(" + value + ")";
+            default:
+                return null;
+        }
+        switch (operator) {
+            case "=":
+                return name + "(" + quote(value) + ")";
+            case "contains":
+                return name + "Contains(" + quote(value) + ")";
+            default:
+                return name + "StartsWith(" + quote(value) + ")";
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String firstNonNull(String a, String b) {
+        return a != null ? a : b;
+    }
+
+    /**
+     * Mean lookup time of a compiled locator and of its XPath, over the same lookups.
+     */
+    public static class Speedup {
+        private final String compiledTo;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder nativeNanos = new LongAdder();
+        private final LongAdder xpathNanos = new LongAdder();
+        private volatile boolean mismatched;
+
+        Speedup(String compiledTo) {
+            this.compiledTo = compiledTo;
+        }
+
+        void add(long nativeTime, long xpathTime) {
+            samples.increment();
+            nativeNanos.add(nativeTime);
+            xpathNanos.add(xpathTime);
+        }
+
+        public String getCompiledTo() {
+            return compiledTo;
+        }
+
+        public long getSamples() {
+            return samples.sum();
+        }
+
+        public double getNativeMillis() {
+            return samples.sum() > 0 ? nativeNanos.sum() / 1e6 / samples.sum() : 0;
+        }
+
+        public double getXpathMillis() {
+            return samples.sum() > 0 ? xpathNanos.sum() / 1e6 / samples.sum() : 0;
+        }
+
+        /**
+         * Returns how many times faster the compiled lookup was, or 0 if never sampled.
+         */
+        public double getSpeedup() {
+            return nativeNanos.sum() > 0 ? (double) xpathNanos.sum() / nativeNanos.sum() : 0;
+        }
+
+        public boolean isMismatched() {
+            return mismatched;
+        }
+    }
+
+    /**
+     * Looks up with the native locator, sampling the original XPath for comparison.
+     */
+    private static final class CompiledBy extends By {
+        private final String xpath;
+        private final By target;
+        private final By fallback;
+        private final AtomicInteger samplesLeft;
+        private volatile boolean useFallback;
+
+        CompiledBy(String xpath, By target) {
+            this.xpath = xpath;
+            this.target = target;
+            this.fallback = AppiumBy.xpath(xpath);
+            this.samplesLeft = new AtomicInteger(AppConfig.getInstance().getLocatorCompareSamples());
+        }
+
+        @Override
+        public WebElement findElement(SearchContext context) {
+            if (useFallback) {
+                return context.findElement(fallback);
+            }
+            long start = System.nanoTime();
+            WebElement element = context.findElement(target);
+            long nativeTime = System.nanoTime() - start;
+            sample(context, nativeTime, 1);
+            return element;
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            if (useFallback) {
+                return context.findElements(fallback);
+            }
+            long start = System.nanoTime();
+            List<WebElement> elements = context.findElements(target);
+            long nativeTime = System.nanoTime() - start;
+            if (!elements.isEmpty()) {
+                sample(context, nativeTime, elements.size());
+            }
+            return elements;
+        }
+
+        /**
+         * Times the XPath on a lookup that just found something, while the screen is the same.
+         */
+        private void sample(SearchContext context, long nativeTime, int nativeCount) {
+            if (samplesLeft.get() <= 0 || samplesLeft.getAndDecrement() <= 0) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<WebElement> xpathElements = context.findElements(fallback);
+            long xpathTime = System.nanoTime() - start;
+
+            Speedup speedup = speedups.computeIfAbsent(xpath, key -> new Speedup(target.toString()));
+            // findElement only needs the first match; findElements must agree on the count
+            boolean agrees = nativeCount == 1 ? !xpathElements.isEmpty() : xpathElements.size() == nativeCount;
+            if (!agrees) {
+                logger.warn("{} found {} element(s) but {} found {}; using the XPath from now on",
+                        target, nativeCount, xpath, xpathElements.size());
+                speedup.mismatched = true;
+                useFallback = true;
+                return;
+            }
+            speedup.add(nativeTime, xpathTime);
+        }
+
+        @Override
+        public String toString() {
+            return target + " (compiled from " + xpath + ")";
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.aysa.automation.pages;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.utils.AppInfo;
+import com.aysa.automation.utils.WaitUtils;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Resolves {@link LocatorChain}s, trying the strategy that matched last time first.
+ *
+ * Winners are remembered per device and installed app version and persisted
+ * across runs. Every probe runs with a zero implicit wait, so a miss costs a
+ * single round trip instead of the full implicit timeout.
+ */
+public class LocatorResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocatorResolver.class);
+    private static final String MEMORY_FILE = "locator-memory.properties";
+    private static final long POLL_MILLIS = 250;
+
+    private static final Properties memory = loadMemory();
+
+    private final AndroidDriver driver;
+    private final WaitUtils waitUtils;
+
+    public LocatorResolver(AndroidDriver driver, WaitUtils waitUtils) {
+        this.driver = driver;
+        this.waitUtils = waitUtils;
+    }
+
+    /**
+     * Returns the first displayed element matched by the chain, polling for up to
+     * the given timeout if the screen hasn't rendered any of them yet.
+     */
+    public WebElement resolve(LocatorChain chain, Duration timeout) {
+        String key = memoryKey(chain);
+        List<String> order = chain.strategyOrder(memory.getProperty(key));
+        long endTime = System.currentTimeMillis() + timeout.toMillis();
+
+        do {
+            WebElement element = probe(chain, order, key);
+            if (element != null) {
+                return element;
+            }
+            WaitUtils.sleep(POLL_MILLIS);
+        } while (System.currentTimeMillis() < endTime);
+
+        throw new RuntimeException("No locator matched for " + chain);
+    }
+
+    private WebElement probe(LocatorChain chain, List<String> order, String key) {
+        return waitUtils.probe(() -> {
+            for (String strategy : order) {
+                for (WebElement element : driver.findElements(chain.locator(strategy))) {
+                    if (element.isDisplayed()) {
+                        remember(key, strategy);
+                        logger.debug("{} matched by strategy '{}'", chain.getName(), strategy);
+                        return element;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private String memoryKey(LocatorChain chain) {
+        AppInfo appInfo = AppInfo.read(driver, AppConfig.getInstance().getAppPackage());
+        return AppInfo.getDeviceId(driver) + "|" + appInfo.getVersionName() + "|"
+                + appInfo.getVersionCode() + "|" + chain.getName();
+    }
+
+    private static void remember(String key, String strategy) {
+        synchronized (memory) {
+            if (strategy.equals(memory.getProperty(key))) {
+                return;
+            }
+            memory.setProperty(key, strategy);
+            try (OutputStream out = new FileOutputStream(MEMORY_FILE)) {
+                memory.store(out, "Winning locator strategy per device|versionName|versionCode|chain");
+            } catch (IOException e) {
+                logger.warn("Could not persist locator memory: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Properties loadMemory() {
+        Properties properties = new Properties();
+        File file = new File(MEMORY_FILE);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                logger.warn("Could not load locator memory: {}", e.getMessage());
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,68 @@
+package com.aysa.automation.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Page objects pooled per session. Building a page proxies all of its fields and
+ * creates its own waits, so each page is built once per session and handed out again
+ * for later screens and cases, with its cached element handles dropped since the
+ * screen they came from has gone.
+ *
+ * Pages hold no per-case state beyond what the call that returns them sets up
+ * (see {@link ResultsPage#awaitResults()}).
+ */
+public final class Pages {
+
+    private static final Map<SessionId, Map<Class<? extends BasePage>, BasePage>> pages = new ConcurrentHashMap<>();
+
+    private Pages() {
+    }
+
+    /**
+     * Returns the session's page of the given type, building it on first use.
+     */
+    public static <T extends BasePage> T get(AndroidDriver driver, Class<T> type) {
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId == null) {
+            return create(driver, type);
+        }
+        Map<Class<? extends BasePage>, BasePage> sessionPages =
+                pages.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>());
+        BasePage page = sessionPages.get(type);
+        if (page == null) {
+            page = create(driver, type);
+            sessionPages.put(type, page);
+        } else {
+            page.forgetElements();
+        }
+        return type.cast(page);
+    }
+
+    /**
+     * Discards the pages of a session that is about to be quit.
+     */
+    public static void release(AndroidDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId != null) {
+            pages.remove(sessionId);
+        }
+    }
+
+    private static <T extends BasePage> T create(AndroidDriver driver, Class<T> type) {
+        try {
+            return type.getConstructor(AndroidDriver.class).newInstance(driver);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Could not create " + type.getSimpleName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(type.getSimpleName() + " needs a public (AndroidDriver) constructor", e);
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.aysa.automation.pages;
 
+import com.aysa.automation.data.TestData;
+import com.aysa.automation.utils.StepProfiler;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.driverscripts.ScriptOptions;
+import io.appium.java_client.driverscripts.ScriptType;
+import io.appium.java_client.driverscripts.ScriptValue;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Page Object for the Aysa questionnaire flow.
@@ -61,11 +66,9 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage clickUseThisPhoto() {
         logger.info("Clicking USE THIS PHOTO button");
-        sleep(1500); // Wait for image to load
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
-        WebElement button = wait.until(ExpectedConditions.elementToBeClickable(useThisPhotoButton));
+        // Button becomes clickable once the image has loaded
+        WebElement button = waitUtils.waitForElementToBeClickable(useThisPhotoButton, Duration.ofSeconds(15));
         button.click();
-        sleep(1500);
         return this;
     }
 
@@ -75,16 +78,9 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage answerFlakyBumpyQuestion(String answer) {
         logger.info("Answering flaky/bumpy question: {}", answer);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        if ("YES".equalsIgnoreCase(answer)) {
-            WebElement button = wait.until(ExpectedConditions.elementToBeClickable(yesButton));
-            button.click();
-        } else {
-            WebElement button = wait.until(ExpectedConditions.elementToBeClickable(noButton));
-            button.click();
-        }
-        sleep(1000);
+        WebElement button = waitUtils.waitForElementToBeClickable(
+            "YES".equalsIgnoreCase(answer) ? yesButton : noButton, Duration.ofSeconds(10));
+        button.click();
         return this;
     }
 
@@ -94,13 +90,8 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage selectProfile(String profileName) {
         logger.info("Selecting profile: {}", profileName);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        WebElement profile = wait.until(ExpectedConditions.elementToBeClickable(
-            AppiumBy.accessibilityId(profileName)
-        ));
+        WebElement profile = waitForClickable(AppiumBy.accessibilityId(profileName), Duration.ofSeconds(10));
         profile.click();
-        sleep(1000);
         return this;
     }
 
@@ -110,13 +101,9 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage selectBodyCoverage(String option) {
         logger.info("Selecting body coverage: {}", option);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        WebElement optionElement = wait.until(ExpectedConditions.elementToBeClickable(
-            AppiumBy.xpath("//android.widget.TextView[@text='" + option + "']")
-        ));
+        WebElement optionElement = waitForClickable(
+            LocatorCompiler.xpath("//android.widget.TextView[@text='" + option + "']"), Duration.ofSeconds(10));
         optionElement.click();
-        sleep(1000);
         return this;
     }
 
@@ -126,32 +113,18 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage selectBodyLocation(String location) {
         logger.info("Selecting body location: {}", location);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
 
-        // Wait for body diagram to load
-        sleep(2000);
-
-        // First click zooms in
-        WebElement bodyPart = wait.until(ExpectedConditions.elementToBeClickable(
-            AppiumBy.accessibilityId(location)
-        ));
-        bodyPart.click();
-        logger.info("First click on {} - zooming in", location);
-        sleep(2000);
+        // First click zooms in - wait for the zoom animation to settle before re-finding
+        WebElement bodyPart = waitForClickable(AppiumBy.accessibilityId(location), Duration.ofSeconds(15));
+        clickAndAwaitTransition(bodyPart);
+        logger.info("First click on {} - zoomed in", location);
 
         // Second click selects - re-find element after zoom
-        bodyPart = wait.until(ExpectedConditions.elementToBeClickable(
-            AppiumBy.accessibilityId(location)
-        ));
+        bodyPart = waitForClickable(AppiumBy.accessibilityId(location), Duration.ofSeconds(15));
         bodyPart.click();
         logger.info("Second click on {} - selecting", location);
-        sleep(2500);
-
-        // Wait for CONTINUE button to appear after selection
-        logger.info("Waiting for CONTINUE button...");
-        sleep(1500);
 
-        // Click CONTINUE
+        // CONTINUE only becomes clickable once the selection registers
         clickContinue();
         return this;
     }
@@ -163,13 +136,8 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage selectDuration(String duration) {
         logger.info("Selecting duration: {}", duration);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        WebElement durationOption = wait.until(ExpectedConditions.elementToBeClickable(
-            AppiumBy.accessibilityId(duration)
-        ));
+        WebElement durationOption = waitForClickable(AppiumBy.accessibilityId(duration), Duration.ofSeconds(10));
         durationOption.click();
-        sleep(1000);
         return this;
     }
 
@@ -179,13 +147,9 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage answerYesNo(String answer) {
         logger.info("Answering yes/no question: {}", answer);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        WebElement answerButton = wait.until(ExpectedConditions.elementToBeClickable(
-            AppiumBy.accessibilityId(answer)
-        ));
-        answerButton.click();
-        sleep(1000);
+        WebElement answerButton = waitForClickable(AppiumBy.accessibilityId(answer), Duration.ofSeconds(10));
+        // Consecutive questions share the Yes/No ids, so wait for the next question to replace this one
+        clickAndAwaitTransition(answerButton);
         return this;
     }
 
@@ -194,15 +158,10 @@ public class QuestionnairePage extends BasePage {
      */
     public QuestionnairePage clickContinue() {
         logger.info("Clicking CONTINUE button");
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(20));
-
-        // Wait a bit for button to become visible
-        sleep(500);
-
-        WebElement button = wait.until(ExpectedConditions.elementToBeClickable(continueButton));
-        button.click();
+        WebElement button = waitUtils.waitForElementToBeClickable(continueButton, Duration.ofSeconds(20));
+        // CONTINUE appears on several screens, so wait for this one to be replaced
+        clickAndAwaitTransition(button);
         logger.info("CONTINUE button clicked");
-        sleep(1500);
         return this;
     }
 
@@ -220,32 +179,43 @@ public class QuestionnairePage extends BasePage {
 
         logger.info("Completing full questionnaire flow");
 
-        clickUseThisPhoto();
-        answerFlakyBumpyQuestion(flakyBumpy);
-        selectProfile(profileName);
-        selectBodyCoverage(bodyCoverage);
-        selectBodyLocation(bodyLocation);
-        selectDuration(duration);
-        answerYesNo(itches);  // Does it itch?
-        answerYesNo(fever);   // Do you have a fever?
+        StepProfiler.time("clickUseThisPhoto", this::clickUseThisPhoto);
+        StepProfiler.time("answerFlakyBumpyQuestion", () -> answerFlakyBumpyQuestion(flakyBumpy));
+        StepProfiler.time("selectProfile", () -> selectProfile(profileName));
+        StepProfiler.time("selectBodyCoverage", () -> selectBodyCoverage(bodyCoverage));
+        StepProfiler.time("selectBodyLocation", () -> selectBodyLocation(bodyLocation));
+        StepProfiler.time("selectDuration", () -> selectDuration(duration));
+        StepProfiler.time("answerItches", () -> answerYesNo(itches));  // Does it itch?
+        StepProfiler.time("answerFever", () -> answerYesNo(fever));    // Do you have a fever?
 
         // Final CONTINUE to submit and get results
         logger.info("Submitting questionnaire for analysis...");
-        sleep(1000);
-        clickContinue();
+        StepProfiler.time("submitQuestionnaire", this::clickContinue);
 
-        // Wait for API response and results to load
-        logger.info("Waiting for results to load...");
-        sleep(5000);
-
-        return new ResultsPage(driver);
+        // ResultsPage waits for the API response and results to render
+        return StepProfiler.time("loadResultsPage", () -> Pages.get(driver, ResultsPage.class).awaitResults());
     }
 
-    private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    /**
+     * Completes the questionnaire in one server-side driver script instead of
+     * one client command per interaction. Records the per-step timings the script reports.
+     */
+    public ResultsPage completeQuestionnaireScripted(TestData testData) {
+        logger.info("Completing questionnaire via server-side driver script");
+        QuestionnaireScript script = new QuestionnaireScript(testData);
+
+        ScriptValue value = StepProfiler.time("executeDriverScript", () -> driver.executeDriverScript(
+            script.toScript(),
+            new ScriptOptions().withScriptType(ScriptType.WEBDRIVERIO).withTimeout(script.getTimeoutMillis())));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = (Map<String, Object>) value.getResult();
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> timings = (List<Map<String, Object>>) result.get("timings");
+        for (Map<String, Object> timing : timings) {
+            StepProfiler.record((String) timing.get("name"), ((Number) timing.get("ms")).longValue());
         }
+
+        return Pages.get(driver, ResultsPage.class).showing((String) result.get("source"));
     }
 }
@@ -0,0 +1,120 @@
+package com.aysa.automation.pages;
+
+import com.aysa.automation.data.TestData;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the questionnaire answers of a {@link TestData} into a single WebdriverIO
+ * script that Appium runs server-side via executeDriverScript.
+ *
+ * The script performs the same steps as {@link QuestionnairePage#completeQuestionnaire},
+ * waits for the results screen and returns per-step timings plus the final page source,
+ * so the whole questionnaire costs one client round trip.
+ * The Appium server must run with --allow-insecure=execute_driver_script.
+ */
+public class QuestionnaireScript {
+
+    private static final String CONTINUE = "//android.widget.Button[@text='CONTINUE']";
+    private static final String RESULTS_LIST = "android=new UiSelector().resourceId(\"com.visualdx.aysa:id/recycler_view\")";
+    private static final String DONE_ACTION = "android=new UiSelector().resourceId(\"com.visualdx.aysa:id/action_done\")";
+
+    // Runs each step: wait for the element to be displayed and enabled (as client mode
+    // waits for clickable), click (twice for zoom-then-select), and optionally wait for
+    // the screen to change and settle before the next step. settle() returns whether the
+    // screen changed at all; a click that changed nothing fails the script with the step name
+    private static final String RUNNER = String.join("\n",
+        "const settle = async (before, timeout) => {",
+        "  const end = Date.now() + timeout;",
+        "  let previous = before;",
+        "  let changed = false;",
+        "  while (Date.now() < end) {",
+        "    await driver.pause(250);",
+        "    const current = await driver.getPageSource();",
+        "    if (changed && current === previous) return true;",
+        "    changed = changed || current !== before;",
+        "    previous = current;",
+        "  }",
+        "  return changed;",
+        "};",
+        "const timings = [];",
+        "for (const step of steps) {",
+        "  const start = Date.now();",
+        "  for (let i = 0; i < step.clicks; i++) {",
+        "    const element = await driver.$(step.selector);",
+        "    await element.waitForDisplayed({ timeout: step.timeoutMs });",
+        "    await element.waitForEnabled({ timeout: step.timeoutMs });",
+        "    const before = (step.awaitTransition || i < step.clicks - 1) ? await driver.getPageSource() : null;",
+        "    await element.click();",
+        "    if (before !== null && !(await settle(before, transitionMs))) {",
+        "      throw new Error(step.name + ': screen did not change within ' + transitionMs + ' ms of the click');",
+        "    }",
+        "  }",
+        "  timings.push({ name: step.name, ms: Date.now() - start });",
+        "}",
+        "const resultsStart = Date.now();",
+        "await driver.waitUntil(async () =>",
+        "  (await (await driver.$(resultsList)).isExisting()) || (await (await driver.$(doneAction)).isExisting()),",
+        "  { timeout: resultsTimeoutMs });",
+        "await settle('', transitionMs);",
+        "const source = await driver.getPageSource();",
+        "timings.push({ name: 'loadResultsPage', ms: Date.now() - resultsStart });",
+        "return { timings, source };");
+
+    private static final long TRANSITION_MS = 10000;
+    private static final long RESULTS_TIMEOUT_MS = 60000;
+
+    private final List<Map<String, Object>> steps = new ArrayList<>();
+
+    public QuestionnaireScript(TestData testData) {
+        step("clickUseThisPhoto", "//android.widget.Button[@text='USE THIS PHOTO']", 15000, 1, false);
+        step("answerFlakyBumpyQuestion", "//android.widget.Button[@text='"
+                + ("YES".equalsIgnoreCase(testData.getFlakyBumpy()) ? "YES" : "NO") + "']", 10000, 1, false);
+        step("selectProfile", "~" + testData.getProfileName(), 10000, 1, false);
+        step("selectBodyCoverage", "//android.widget.TextView[@text='" + testData.getBodyCoverage() + "']",
+                10000, 1, false);
+        step("selectBodyLocation", "~" + testData.getBodyLocation(), 15000, 2, false);
+        step("confirmBodyLocation", CONTINUE, 20000, 1, true);
+        step("selectDuration", "~" + testData.getDuration(), 10000, 1, false);
+        step("answerItches", "~" + testData.getItches(), 10000, 1, true);
+        step("answerFever", "~" + testData.getFever(), 10000, 1, true);
+        step("submitQuestionnaire", CONTINUE, 20000, 1, true);
+    }
+
+    private void step(String name, String selector, long timeoutMs, int clicks, boolean awaitTransition) {
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("name", name);
+        step.put("selector", selector);
+        step.put("timeoutMs", timeoutMs);
+        step.put("clicks", clicks);
+        step.put("awaitTransition", awaitTransition);
+        steps.add(step);
+    }
+
+    /**
+     * Upper bound for the whole script, used as the server-side execution timeout.
+     */
+    public long getTimeoutMillis() {
+        long total = RESULTS_TIMEOUT_MS + TRANSITION_MS;
+        for (Map<String, Object> step : steps) {
+            int clicks = (Integer) step.get("clicks");
+            // Displayed and enabled are waited for one after the other
+            total += clicks * (2 * (Long) step.get("timeoutMs") + TRANSITION_MS);
+        }
+        return total;
+    }
+
+    public String toScript() {
+        Gson gson = new Gson();
+        return "const steps = " + gson.toJson(steps) + ";\n"
+                + "const transitionMs = " + TRANSITION_MS + ";\n"
+                + "const resultsTimeoutMs = " + RESULTS_TIMEOUT_MS + ";\n"
+                + "const resultsList = " + gson.toJson(RESULTS_LIST) + ";\n"
+                + "const doneAction = " + gson.toJson(DONE_ACTION) + ";\n"
+                + RUNNER;
+    }
+}
@@ -3,11 +3,8 @@ package com.aysa.automation.pages;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,63 +13,89 @@ import java.util.List;
  */
 public class ResultsPage extends BasePage {
 
+    private static final Duration RESULTS_TIMEOUT = Duration.ofSeconds(60);
+    private static final String TITLE_TEXT_ID = "com.visualdx.aysa:id/title_text";
+    private static final String[] QUALITY_ERROR_PHRASES = {
+        "quality error", "image too dark", "image to dark", "too blurry", "unable to detect"
+    };
+
+    // Results screen captured once per case; all verification queries are answered from it
+    private HierarchySnapshot snapshot;
+
     public ResultsPage(AndroidDriver driver) {
         super(driver);
         logger.info("Initializing Results Page");
+    }
+
+    /**
+     * Waits for the results of the case just submitted and captures them.
+     */
+    public ResultsPage awaitResults() {
+        snapshot = null;
         waitForResultsToLoad();
+        return this;
+    }
+
+    /**
+     * Uses results already captured, e.g. by a driver script that waited for them itself.
+     */
+    public ResultsPage showing(String pageSource) {
+        logger.info("Using captured results page source");
+        snapshot = HierarchySnapshot.of(pageSource);
+        return this;
     }
 
     @Override
     public boolean isPageDisplayed() {
-        try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
-            wait.until(ExpectedConditions.presenceOfElementLocated(
-                AppiumBy.xpath("//android.widget.TextView[@text='Results']")
-            ));
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return waitUtils.waitForAnyPresent(Duration.ofSeconds(5),
+            LocatorCompiler.xpath("//android.widget.TextView[@text='Results']"));
     }
 
     private void waitForResultsToLoad() {
         logger.info("Waiting for results page to load");
-        try {
-            Thread.sleep(3000); // Wait for API response and page render
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
-            wait.until(ExpectedConditions.presenceOfElementLocated(
-                AppiumBy.id("com.visualdx.aysa:id/recycler_view")
-            ));
-        } catch (Exception e) {
-            logger.warn("Results may not have loaded completely: {}", e.getMessage());
+        // Either the results list or the DONE action shows up once the API has answered
+        boolean loaded = waitUtils.waitForAnyPresent(RESULTS_TIMEOUT,
+            AppiumBy.id("com.visualdx.aysa:id/recycler_view"),
+            AppiumBy.id("com.visualdx.aysa:id/action_done"));
+        if (loaded) {
+            // Result cards render after the list appears; keep the settled hierarchy
+            String source = waitUtils.waitForStableHierarchySource(TRANSITION_TIMEOUT);
+            if (source != null) {
+                snapshot = HierarchySnapshot.of(source);
+            }
+        } else {
+            logger.warn("Results may not have loaded completely");
+        }
+    }
+
+    /**
+     * Returns the snapshot of the results screen, capturing it on first use.
+     */
+    private HierarchySnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = HierarchySnapshot.capture(driver);
         }
+        return snapshot;
+    }
+
+    /**
+     * Re-captures the results screen, e.g. after scrolling.
+     */
+    public ResultsPage refresh() {
+        snapshot = HierarchySnapshot.capture(driver);
+        return this;
     }
 
     /**
      * Gets all disease names from the results.
-     * Each result card has content-desc with the disease name.
+     * Each result card has a title_text element with the disease name.
      */
     public List<String> getAllDetectedDiseases() {
         logger.info("Getting all detected diseases from results");
-        List<String> diseases = new ArrayList<>();
-
-        try {
-            // Find all result cards by their title_text resource-id
-            List<WebElement> titleElements = driver.findElements(
-                AppiumBy.id("com.visualdx.aysa:id/title_text")
-            );
-
-            for (WebElement title : titleElements) {
-                String text = title.getText();
-                if (text != null && !text.isEmpty()) {
-                    diseases.add(text);
-                    logger.info("Found disease result: {}", text);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error getting diseases: {}", e.getMessage());
+        List<String> diseases = snapshot().textsOf(TITLE_TEXT_ID);
+        for (String disease : diseases) {
+            logger.info("Found disease result: {}", disease);
         }
-
         return diseases;
     }
 
@@ -84,18 +107,15 @@ public class ResultsPage extends BasePage {
     public boolean containsDisease(String expectedDisease) {
         logger.info("Checking if results contain: {}", expectedDisease);
 
-        List<String> diseases = getAllDetectedDiseases();
-
-        for (String disease : diseases) {
+        for (String disease : getAllDetectedDiseases()) {
             if (disease.toLowerCase().contains(expectedDisease.toLowerCase())) {
                 logger.info("MATCH FOUND: {} contains {}", disease, expectedDisease);
                 return true;
             }
         }
 
-        // Also check page source as fallback
-        String pageSource = driver.getPageSource();
-        if (pageSource.toLowerCase().contains(expectedDisease.toLowerCase())) {
+        // Also check the rest of the screen as fallback
+        if (snapshot().containsText(expectedDisease)) {
             logger.info("Found {} in page source", expectedDisease);
             return true;
         }
@@ -116,12 +136,12 @@ public class ResultsPage extends BasePage {
      * Detects if the results screen is showing an image quality error instead of diseases.
      */
     public boolean hasQualityError() {
-        String pageSource = driver.getPageSource().toLowerCase();
-        return pageSource.contains("quality error")
-                || pageSource.contains("image too dark")
-                || pageSource.contains("image to dark")
-                || pageSource.contains("too blurry")
-                || pageSource.contains("unable to detect");
+        for (String phrase : QUALITY_ERROR_PHRASES) {
+            if (snapshot().containsText(phrase)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -130,23 +150,12 @@ public class ResultsPage extends BasePage {
     public void clickDone() {
         logger.info("Clicking DONE button");
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-            WebElement doneButton = wait.until(ExpectedConditions.elementToBeClickable(
-                AppiumBy.id("com.visualdx.aysa:id/action_done")
-            ));
+            WebElement doneButton = waitForClickable(
+                AppiumBy.id("com.visualdx.aysa:id/action_done"), Duration.ofSeconds(10));
             doneButton.click();
-            sleep(1000);
         } catch (Exception e) {
             logger.warn("DONE button not found, trying back navigation");
             driver.navigate().back();
         }
     }
-
-    private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
 }
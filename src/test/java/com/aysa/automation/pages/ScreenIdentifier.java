@@ -0,0 +1,68 @@
+package com.aysa.automation.pages;
+
+/**
+ * Names the Aysa screen a {@link HierarchySnapshot} shows, from the same markers
+ * the page objects wait for, so finding out where the app is costs one page-source fetch.
+ */
+public final class ScreenIdentifier {
+
+    private static final String PACKAGE_ID = "com.visualdx.aysa:id/";
+    private static final String BUTTON = "android.widget.Button";
+    private static final String TEXT_VIEW = "android.widget.TextView";
+
+    public enum Screen {
+        ONBOARDING,
+        /** The cases list with the "new case" button: where every test case starts and ends. */
+        CASES,
+        /** Camera screen opened by "new case", with the image picker button. */
+        CAMERA,
+        PICKER,
+        /** Any questionnaire step, from the photo preview to the final CONTINUE. */
+        QUESTIONNAIRE,
+        RESULTS,
+        /** Nothing identifiable but a progress indicator, e.g. while the analysis runs. */
+        LOADING,
+        UNKNOWN
+    }
+
+    private ScreenIdentifier() {
+    }
+
+    public static Screen identify(HierarchySnapshot snapshot) {
+        if (snapshot.hasContentDesc("getStarted")) {
+            return Screen.ONBOARDING;
+        }
+        if (snapshot.hasContentDesc("new case")) {
+            return Screen.CASES;
+        }
+        if (snapshot.hasResourceId(PACKAGE_ID + "action_done") || snapshot.hasText(TEXT_VIEW, "Results")) {
+            return Screen.RESULTS;
+        }
+        if (snapshot.hasContentDesc("vdxAlbumSelect")
+                || snapshot.hasResourceId(PACKAGE_ID + "gallery_spinner")
+                || snapshot.hasResourceId(PACKAGE_ID + "image_recycler_view")) {
+            return Screen.PICKER;
+        }
+        if (snapshot.hasContentDesc("selectImageButton")) {
+            return Screen.CAMERA;
+        }
+        if (isQuestionnaire(snapshot)) {
+            return Screen.QUESTIONNAIRE;
+        }
+        if (snapshot.hasClassName("android.widget.ProgressBar")) {
+            return Screen.LOADING;
+        }
+        return Screen.UNKNOWN;
+    }
+
+    private static boolean isQuestionnaire(HierarchySnapshot snapshot) {
+        return snapshot.hasText(BUTTON, "USE THIS PHOTO")
+                || snapshot.hasText(BUTTON, "CONTINUE")
+                || snapshot.hasText(BUTTON, "YES")
+                || snapshot.hasText(BUTTON, "NO")
+                || snapshot.hasText(TEXT_VIEW, "Single Lesion")
+                || snapshot.hasText(TEXT_VIEW, "Limited Area")
+                || snapshot.hasText(TEXT_VIEW, "Widespread")
+                || (snapshot.hasContentDesc("Yes") && snapshot.hasContentDesc("No"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.aysa.automation.pages;
+
+import com.aysa.automation.config.AppConfig;
+import com.aysa.automation.pages.ScreenIdentifier.Screen;
+import com.aysa.automation.utils.AppInfo;
+import com.aysa.automation.utils.WaitUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gets the app back to the cases screen by the shortest known route: identify the
+ * current screen from one page-source fetch ({@link ScreenIdentifier}), take the one
+ * action that leaves it (DONE on results, the onboarding button, otherwise back),
+ * and repeat until the cases screen shows.
+ *
+ * Remembers per device whether onboarding was completed and whether the last
+ * navigation ended on the cases screen, so a case that starts right where the
+ * previous one ended needs no round trip at all.
+ */
+public class ScreenNavigator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenNavigator.class);
+
+    private static final int MAX_STEPS = 8;
+    private static final long POLL_MILLIS = 150;
+    // How long an action gets to change the screen, and how long to wait out the analysis spinner
+    private static final Duration ACTION_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration LOADING_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final Set<String> onboardedDevices = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Screen> lastScreen = new ConcurrentHashMap<>();
+
+    private final AndroidDriver driver;
+    private final WaitUtils waitUtils;
+    private final String deviceId;
+
+    public ScreenNavigator(AndroidDriver driver) {
+        this.driver = driver;
+        this.waitUtils = new WaitUtils(driver);
+        this.deviceId = AppInfo.getDeviceId(driver);
+    }
+
+    /**
+     * Returns the screen currently shown.
+     */
+    public Screen currentScreen() {
+        return ScreenIdentifier.identify(HierarchySnapshot.capture(driver));
+    }
+
+    /**
+     * Makes sure a new case can be started: onboarding done and the cases screen up.
+     * Returns without touching the device when the previous navigation on this device
+     * ended on the cases screen; that memory is used once, since the case about to
+     * run will leave the screen.
+     */
+    public boolean ensureOnCases() {
+        Screen known = lastScreen.remove(deviceId);
+        if (known == Screen.CASES && onboardedDevices.contains(deviceId)) {
+            logger.info("{} is on the cases screen, onboarding done", deviceId);
+            return true;
+        }
+        return goToCases();
+    }
+
+    /**
+     * Navigates to the cases screen. Returns false if it could not be reached.
+     */
+    public boolean goToCases() {
+        String source = driver.getPageSource();
+        boolean settled = false;
+        for (int step = 0; step < MAX_STEPS; step++) {
+            Screen screen = ScreenIdentifier.identify(HierarchySnapshot.of(source));
+            if (screen == Screen.UNKNOWN && !settled) {
+                // Possibly mid-transition: look again once the hierarchy stops changing
+                settled = true;
+                String stable = waitUtils.waitForStableHierarchySource(SETTLE_TIMEOUT);
+                if (stable != null) {
+                    source = stable;
+                    continue;
+                }
+            }
+            settled = false;
+            logger.info("On {} screen", screen);
+
+            Duration timeout = ACTION_TIMEOUT;
+            switch (screen) {
+                case CASES:
+                    onboardedDevices.add(deviceId);
+                    lastScreen.put(deviceId, Screen.CASES);
+                    return true;
+                case ONBOARDING:
+                    driver.findElement(AppiumBy.accessibilityId("getStarted")).click();
+                    onboardedDevices.add(deviceId);
+                    break;
+                case RESULTS:
+                    driver.findElement(AppiumBy.id("com.visualdx.aysa:id/action_done")).click();
+                    break;
+                case LOADING:
+                    // Let the analysis finish rather than cancelling it
+                    timeout = LOADING_TIMEOUT;
+                    break;
+                case UNKNOWN:
+                    if (!leftApp()) {
+                        driver.navigate().back();
+                    }
+                    break;
+                default:
+                    driver.navigate().back();
+                    break;
+            }
+            source = awaitChange(source, timeout);
+        }
+        logger.warn("Could not reach the cases screen on {} within {} steps", deviceId, MAX_STEPS);
+        return false;
+    }
+
+    /**
+     * Brings the app back to the foreground if another app is showing. Returns true if it had to.
+     */
+    private boolean leftApp() {
+        String appPackage = AppConfig.getInstance().getAppPackage();
+        try {
+            if (appPackage.equals(driver.getCurrentPackage())) {
+                return false;
+            }
+        } catch (Exception e) {
+            logger.debug("Could not read current package: {}", e.getMessage());
+            return false;
+        }
+        logger.info("{} is not in the foreground, activating it", appPackage);
+        driver.activateApp(appPackage);
+        return true;
+    }
+
+    private String awaitChange(String before, Duration timeout) {
+        long endTime = System.currentTimeMillis() + timeout.toMillis();
+        String current;
+        do {
+            WaitUtils.sleep(POLL_MILLIS);
+            current = driver.getPageSource();
+        } while (current.equals(before) && System.currentTimeMillis() < endTime);
+        return current;
+    }
+}
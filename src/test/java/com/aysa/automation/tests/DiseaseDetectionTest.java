@@ -1,20 +1,29 @@
 package com.aysa.automation.tests;
 
 import com.aysa.automation.base.BaseTest;
+import com.aysa.automation.data.ResultCache;
 import com.aysa.automation.data.TestData;
 import com.aysa.automation.data.TestDataProvider;
 import com.aysa.automation.data.TestData.ExpectedResultType;
+import com.aysa.automation.images.ImageIntentInjector;
+import com.aysa.automation.pages.LocatorCompiler;
+import com.aysa.automation.pages.Pages;
 import com.aysa.automation.pages.QuestionnairePage;
 import com.aysa.automation.pages.ResultsPage;
+import com.aysa.automation.pages.ScreenNavigator;
+import com.aysa.automation.utils.AppInfo;
+import com.aysa.automation.utils.StepProfiler;
+import com.aysa.automation.utils.WaitUtils;
 import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import org.testng.Reporter;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Test class for disease detection functionality in Aysa app.
@@ -22,6 +31,8 @@ import java.time.Duration;
  */
 public class DiseaseDetectionTest extends BaseTest {
 
+    private static final By NEW_CASE_BUTTON = AppiumBy.accessibilityId("new case");
+
     @BeforeClass(alwaysRun = true)
     @Override
     public void setUpClass() {
@@ -39,55 +50,95 @@ public class DiseaseDetectionTest extends BaseTest {
         logger.info("Starting Test Case #{}: {}", testData.getId(), testData.getDescription());
         logger.info("========================================");
 
-        // Step 1: Click the "I UNDERSTAND. LET'S GET STARTED" button (if visible)
-        clickOnboardingButtonIfPresent();
-
-        // Step 2: Click "Start a new case" button
-        clickStartNewCase();
+        // Read once per device; recorded with the result in the run history
+        AppInfo appInfo = AppInfo.read(getDriver(), config.getAppPackage());
+        Reporter.getCurrentTestResult().setAttribute("appVersion", appInfo.toString());
+
+        // Replay the previous verdict when nothing that decides this case has changed
+        String cacheKey = config.isIncrementalRun() ? ResultCache.keyFor(testData, appInfo) : null;
+        if (cacheKey != null && ResultCache.contains(cacheKey)) {
+            Reporter.getCurrentTestResult().setAttribute("cached", true);
+            logger.info("Test Case #{} unchanged since last run - replaying cached verdict", testData.getId());
+            ResultCache.replay(cacheKey);
+            return;
+        }
 
-        // Step 3: Open image picker
-        clickSelectImageButton();
+        StepProfiler.startCase(testData);
+        boolean foundExpectedDisease;
+        boolean hasQualityError;
+        List<String> detectedDiseases;
+        try {
+            // Step 1: Make sure we're on the cases screen, past onboarding
+            StepProfiler.time("ensureOnCasesScreen", this::ensureOnCasesScreen);
+
+            if (config.isIntentImageDelivery()) {
+                // Steps 2-4: Hand the image straight to the app, skipping the picker
+                StepProfiler.time("deliverImageByIntent",
+                        () -> new ImageIntentInjector(getDriver(), config).deliver(testData));
+            } else {
+                // Step 2: Click "Start a new case" button
+                StepProfiler.time("clickStartNewCase", this::clickStartNewCase);
+
+                // Step 3: Open image picker
+                StepProfiler.time("clickSelectImageButton", this::clickSelectImageButton);
+
+                // Step 4: Select folder and image
+                StepProfiler.time("selectFolder", () -> selectFolder(testData.getFolderName()));
+                StepProfiler.time("selectImage", () -> selectImage(testData.getImageName()));
+            }
 
-        // Step 4: Select folder and image
-        selectFolder(testData.getFolderName());
-        selectImage(testData.getImageName());
-
-        // Step 5: Complete questionnaire flow
-        QuestionnairePage questionnairePage = new QuestionnairePage(driver);
-        ResultsPage resultsPage = questionnairePage.completeQuestionnaire(
-                testData.getFlakyBumpy(),
-                testData.getProfileName(),
-                testData.getBodyCoverage(),
-                testData.getBodyLocation(),
-                testData.getDuration(),
-                testData.getItches(),
-                testData.getFever()
-        );
-
-        // Step 6: Verify results
-        logger.info("Checking results for expected outcome type: {}", testData.getExpectedResultType());
-        boolean foundExpectedDisease = resultsPage.containsDisease(testData.getExpectedDisease());
-        boolean hasQualityError = resultsPage.hasQualityError();
-        var detectedDiseases = resultsPage.getAllDetectedDiseases();
-        logger.info("All detected diseases: {}", detectedDiseases);
-
-        // Click DONE to dismiss results
-        resultsPage.clickDone();
-        sleep(1000);
-
-        // Step 7: Navigate back to start new test
-        navigateBackToCases();
+            // Step 5: Complete questionnaire flow
+            QuestionnairePage questionnairePage = Pages.get(getDriver(), QuestionnairePage.class);
+            ResultsPage resultsPage = config.isScriptedQuestionnaire()
+                    ? questionnairePage.completeQuestionnaireScripted(testData)
+                    : questionnairePage.completeQuestionnaire(
+                            testData.getFlakyBumpy(),
+                            testData.getProfileName(),
+                            testData.getBodyCoverage(),
+                            testData.getBodyLocation(),
+                            testData.getDuration(),
+                            testData.getItches(),
+                            testData.getFever()
+                    );
+
+            // Step 6: Verify results
+            logger.info("Checking results for expected outcome type: {}", testData.getExpectedResultType());
+            foundExpectedDisease = StepProfiler.time("containsDisease",
+                    () -> resultsPage.containsDisease(testData.getExpectedDisease()));
+            hasQualityError = StepProfiler.time("hasQualityError", resultsPage::hasQualityError);
+            detectedDiseases = StepProfiler.time("getAllDetectedDiseases", resultsPage::getAllDetectedDiseases);
+            logger.info("All detected diseases: {}", detectedDiseases);
+            Reporter.getCurrentTestResult().setAttribute("detectedDiseases", detectedDiseases);
+
+            // Click DONE to dismiss results
+            StepProfiler.time("clickDone", resultsPage::clickDone);
+
+            // Step 7: Navigate back to start new test
+            StepProfiler.time("navigateBackToCases", this::navigateBackToCases);
+        } finally {
+            StepProfiler.endCase();
+        }
 
         // Assert at the end so we clean up first
-        if (testData.getExpectedResultType() == ExpectedResultType.DISEASE) {
-            Assert.assertTrue(foundExpectedDisease,
-                    "Expected disease '" + testData.getExpectedDisease() + "' not found in results");
-        } else if (testData.getExpectedResultType() == ExpectedResultType.NONE) {
-            Assert.assertTrue(detectedDiseases.isEmpty(),
-                    "Expected no disease results, but found: " + detectedDiseases);
-        } else if (testData.getExpectedResultType() == ExpectedResultType.QUALITY_ERROR) {
-            Assert.assertTrue(hasQualityError || detectedDiseases.isEmpty(),
-                    "Expected a quality error message but found diseases: " + detectedDiseases);
+        try {
+            if (testData.getExpectedResultType() == ExpectedResultType.DISEASE) {
+                Assert.assertTrue(foundExpectedDisease,
+                        "Expected disease '" + testData.getExpectedDisease() + "' not found in results");
+            } else if (testData.getExpectedResultType() == ExpectedResultType.NONE) {
+                Assert.assertTrue(detectedDiseases.isEmpty(),
+                        "Expected no disease results, but found: " + detectedDiseases);
+            } else if (testData.getExpectedResultType() == ExpectedResultType.QUALITY_ERROR) {
+                Assert.assertTrue(hasQualityError || detectedDiseases.isEmpty(),
+                        "Expected a quality error message but found diseases: " + detectedDiseases);
+            }
+        } catch (AssertionError e) {
+            if (cacheKey != null) {
+                ResultCache.recordFailure(cacheKey, e.getMessage());
+            }
+            throw e;
+        }
+        if (cacheKey != null) {
+            ResultCache.recordPass(cacheKey);
         }
 
         logger.info("Test Case #{} COMPLETED - {}", testData.getId(), testData.getDescription());
@@ -131,36 +182,30 @@ public class DiseaseDetectionTest extends BaseTest {
 
     /**
      * Smoke test to verify basic flow works.
+     * Always opens the in-app picker, so it keeps covering it when image.delivery=intent.
      */
     @Test(description = "Smoke test for basic flow", priority = -1, groups = {"smoke"})
     public void smokeTest() {
         logger.info("Running smoke test");
 
-        clickOnboardingButtonIfPresent();
+        ensureOnCasesScreen();
         clickStartNewCase();
         clickSelectImageButton();
 
+        // Leave the app on the cases screen for the next test sharing this session
+        navigateBackToCases();
+
         logger.info("Smoke test passed - Basic navigation working");
     }
 
     // ==================== Helper Methods ====================
 
     /**
-     * Clicks the onboarding button if present (first launch only).
+     * Gets to the cases screen, clicking through onboarding on first launch. Free when
+     * the previous case on this device ended on the cases screen.
      */
-    private void clickOnboardingButtonIfPresent() {
-        logger.info("Checking for onboarding button...");
-        try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(3));
-            WebElement button = wait.until(ExpectedConditions.elementToBeClickable(
-                    AppiumBy.accessibilityId("getStarted")
-            ));
-            logger.info("Found onboarding button, clicking...");
-            button.click();
-            sleep(1000);
-        } catch (Exception e) {
-            logger.info("Onboarding button not present, continuing...");
-        }
+    private void ensureOnCasesScreen() {
+        new ScreenNavigator(getDriver()).ensureOnCases();
     }
 
     /**
@@ -168,14 +213,10 @@ public class DiseaseDetectionTest extends BaseTest {
      */
     private void clickStartNewCase() {
         logger.info("Clicking Start a new case...");
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        WebElement button = wait.until(ExpectedConditions.elementToBeClickable(
-                AppiumBy.accessibilityId("new case")
-        ));
+        WebElement button = new WaitUtils(getDriver())
+                .waitForElementToBeClickable(NEW_CASE_BUTTON, Duration.ofSeconds(10));
         button.click();
         logger.info("New case started");
-        sleep(1000);
     }
 
     /**
@@ -183,14 +224,10 @@ public class DiseaseDetectionTest extends BaseTest {
      */
     private void clickSelectImageButton() {
         logger.info("Opening image picker...");
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-
-        WebElement button = wait.until(ExpectedConditions.elementToBeClickable(
-                AppiumBy.accessibilityId("selectImageButton")
-        ));
+        WebElement button = new WaitUtils(getDriver())
+                .waitForElementToBeClickable(AppiumBy.accessibilityId("selectImageButton"), Duration.ofSeconds(10));
         button.click();
         logger.info("Image picker opened");
-        sleep(1000);
     }
 
     /**
@@ -198,25 +235,24 @@ public class DiseaseDetectionTest extends BaseTest {
      */
     private void selectFolder(String folderName) {
         logger.info("Selecting folder: {}", folderName);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        WaitUtils waitUtils = new WaitUtils(getDriver());
 
-        // Wait for image picker to fully load
-        sleep(1500);
-
-        // Click the album spinner to open dropdown
-        WebElement spinner = wait.until(ExpectedConditions.elementToBeClickable(
-                AppiumBy.accessibilityId("vdxAlbumSelect")
-        ));
+        // Album spinner becomes clickable once the image picker has loaded
+        WebElement spinner = waitUtils.waitForElementToBeClickable(
+                AppiumBy.accessibilityId("vdxAlbumSelect"), Duration.ofSeconds(15));
         spinner.click();
-        sleep(1000);
 
-        // Select the folder
-        WebElement folder = wait.until(ExpectedConditions.elementToBeClickable(
-                AppiumBy.xpath("//android.widget.TextView[@text='" + folderName + "']")
-        ));
+        // Select the folder from the dropdown
+        WebElement folder = waitUtils.waitForElementToBeClickable(
+                LocatorCompiler.xpath("//android.widget.TextView[@text='" + folderName + "']"), Duration.ofSeconds(15));
+        String before = getDriver().getPageSource();
         folder.click();
+
+        // The previous album may hold an image with the same name, so wait for the grid to reload
+        if (waitUtils.waitForHierarchyChange(before, Duration.ofSeconds(10))) {
+            waitUtils.waitForHierarchyStable(Duration.ofSeconds(10));
+        }
         logger.info("Folder selected: {}", folderName);
-        sleep(1500);
     }
 
     /**
@@ -224,17 +260,11 @@ public class DiseaseDetectionTest extends BaseTest {
      */
     private void selectImage(String imageName) {
         logger.info("Selecting image: {}", imageName);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
-
-        // Wait for images to load in the picker
-        sleep(1000);
-
-        WebElement image = wait.until(ExpectedConditions.elementToBeClickable(
-                AppiumBy.accessibilityId(imageName)
-        ));
+        // Image becomes clickable once the picker grid has loaded it
+        WebElement image = new WaitUtils(getDriver())
+                .waitForElementToBeClickable(AppiumBy.accessibilityId(imageName), Duration.ofSeconds(15));
         image.click();
         logger.info("Image selected: {}", imageName);
-        sleep(1500);
     }
 
     /**
@@ -242,29 +272,8 @@ public class DiseaseDetectionTest extends BaseTest {
      */
     private void navigateBackToCases() {
         logger.info("Navigating back to cases screen...");
-
-        for (int i = 0; i < 5; i++) {
-            try {
-                // Check if we're already on cases screen
-                WebDriverWait shortWait = new WebDriverWait(driver, Duration.ofSeconds(1));
-                shortWait.until(ExpectedConditions.presenceOfElementLocated(
-                        AppiumBy.accessibilityId("new case")
-                ));
-                logger.info("Back on cases screen");
-                return;
-            } catch (Exception e) {
-                // Not on cases screen, go back
-                driver.navigate().back();
-                sleep(500);
-            }
-        }
-    }
-
-    private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (new ScreenNavigator(getDriver()).goToCases()) {
+            logger.info("Back on cases screen");
         }
     }
 }
@@ -0,0 +1,88 @@
+package com.aysa.automation.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Installed app version as reported by the device, read once per device and package.
+ *
+ * Uses "mobile: shell", so the Appium server must run with --allow-insecure=adb_shell;
+ * otherwise the version is reported as "unknown".
+ */
+public class AppInfo {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppInfo.class);
+    private static final Pattern VERSION_NAME = Pattern.compile("versionName=(\\S+)");
+    private static final Pattern VERSION_CODE = Pattern.compile("versionCode=(\\d+)");
+    private static final String UNKNOWN = "unknown";
+
+    private static final Map<String, AppInfo> cache = new ConcurrentHashMap<>();
+
+    private final String versionName;
+    private final String versionCode;
+
+    private AppInfo(String versionName, String versionCode) {
+        this.versionName = versionName;
+        this.versionCode = versionCode;
+    }
+
+    public static AppInfo read(AndroidDriver driver, String appPackage) {
+        return cache.computeIfAbsent(getDeviceId(driver) + "|" + appPackage,
+                key -> queryDevice(driver, appPackage));
+    }
+
+    /**
+     * Returns the UDID the session is bound to, falling back to the device name.
+     */
+    public static String getDeviceId(AndroidDriver driver) {
+        Object udid = driver.getCapabilities().getCapability("appium:udid");
+        if (udid == null) {
+            udid = driver.getCapabilities().getCapability("udid");
+        }
+        if (udid == null) {
+            udid = driver.getCapabilities().getCapability("appium:deviceName");
+        }
+        return udid != null ? udid.toString() : UNKNOWN;
+    }
+
+    private static AppInfo queryDevice(AndroidDriver driver, String appPackage) {
+        try {
+            Map<String, Object> args = new HashMap<>();
+            args.put("command", "dumpsys");
+            args.put("args", Arrays.asList("package", appPackage));
+            String output = String.valueOf(driver.executeScript("mobile: shell", args));
+            AppInfo info = new AppInfo(match(VERSION_NAME, output), match(VERSION_CODE, output));
+            logger.info("{} version on {}: {}", appPackage, getDeviceId(driver), info);
+            return info;
+        } catch (Exception e) {
+            logger.warn("Could not read {} version from device: {}", appPackage, e.getMessage());
+            return new AppInfo(UNKNOWN, UNKNOWN);
+        }
+    }
+
+    private static String match(Pattern pattern, String output) {
+        Matcher matcher = pattern.matcher(output);
+        return matcher.find() ? matcher.group(1) : UNKNOWN;
+    }
+
+    public String getVersionName() {
+        return versionName;
+    }
+
+    public String getVersionCode() {
+        return versionCode;
+    }
+
+    @Override
+    public String toString() {
+        return versionName + " (" + versionCode + ")";
+    }
+}
@@ -0,0 +1,71 @@
+package com.aysa.automation.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Latency histogram over fixed millisecond buckets, keeping raw samples
+ * so percentiles are exact. Thread-safe.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds (inclusive) of each bucket; the last bucket is open-ended
+    public static final long[] BUCKET_BOUNDS_MS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 60000};
+
+    private final List<Long> samples = new ArrayList<>();
+    private final long[] buckets = new long[BUCKET_BOUNDS_MS.length + 1];
+    private long total;
+
+    public synchronized void record(long millis) {
+        samples.add(millis);
+        total += millis;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket]++;
+    }
+
+    public synchronized int getCount() {
+        return samples.size();
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Nearest-rank percentile, e.g. percentile(95) for p95.
+     */
+    public synchronized long percentile(double percent) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", samples.size());
+        json.addProperty("totalMs", total);
+        json.addProperty("minMs", samples.isEmpty() ? 0 : Collections.min(samples));
+        json.addProperty("maxMs", samples.isEmpty() ? 0 : Collections.max(samples));
+        json.addProperty("meanMs", samples.isEmpty() ? 0 : total / samples.size());
+        json.addProperty("p50Ms", percentile(50));
+        json.addProperty("p95Ms", percentile(95));
+        json.addProperty("p99Ms", percentile(99));
+        JsonArray counts = new JsonArray();
+        for (long count : buckets) {
+            counts.add(count);
+        }
+        json.add("buckets", counts);
+        return json;
+    }
+}
@@ -0,0 +1,133 @@
+package com.aysa.automation.utils;
+
+import com.aysa.automation.data.TestData;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Times each step of the diagnosis flow and aggregates the durations into
+ * latency histograms per step, per disease and per image variation.
+ *
+ * The test case being run is tracked per thread, so page objects can time
+ * their steps without knowing which case they belong to.
+ */
+public final class StepProfiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepProfiler.class);
+
+    private static final ThreadLocal<TestData> currentCase = new ThreadLocal<>();
+    private static final Map<String, StepStats> steps = new ConcurrentHashMap<>();
+
+    private StepProfiler() {
+    }
+
+    /**
+     * Attributes steps timed on this thread to the given case until {@link #endCase()}.
+     */
+    public static void startCase(TestData testData) {
+        currentCase.set(testData);
+    }
+
+    public static void endCase() {
+        currentCase.remove();
+    }
+
+    public static void time(String step, Runnable action) {
+        time(step, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T time(String step, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(step, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public static void record(String step, long millis) {
+        logger.debug("Step {} took {} ms", step, millis);
+        StepStats stats = steps.computeIfAbsent(step, name -> new StepStats());
+        stats.overall.record(millis);
+
+        TestData testData = currentCase.get();
+        if (testData != null) {
+            stats.byDisease.computeIfAbsent(testData.getFolderName(), key -> new LatencyHistogram()).record(millis);
+            stats.byVariation.computeIfAbsent(testData.getVariation(), key -> new LatencyHistogram()).record(millis);
+        }
+    }
+
+    public static void reset() {
+        steps.clear();
+    }
+
+    /**
+     * Writes all histograms as JSON, slowest steps (by total time) first.
+     */
+    public static void writeReport(String fileName) {
+        List<Map.Entry<String, StepStats>> ordered = new ArrayList<>(steps.entrySet());
+        ordered.sort(Comparator.comparingLong(
+                (Map.Entry<String, StepStats> entry) -> entry.getValue().overall.getTotal()).reversed());
+
+        JsonObject report = new JsonObject();
+        report.addProperty("generatedAt", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        JsonArray bounds = new JsonArray();
+        for (long bound : LatencyHistogram.BUCKET_BOUNDS_MS) {
+            bounds.add(bound);
+        }
+        report.add("bucketBoundsMs", bounds);
+
+        JsonObject stepsJson = new JsonObject();
+        for (Map.Entry<String, StepStats> entry : ordered) {
+            stepsJson.add(entry.getKey(), entry.getValue().toJson());
+        }
+        report.add("steps", stepsJson);
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = new FileWriter(fileName)) {
+            gson.toJson(report, writer);
+            System.out.println("\n>>> Step timings saved to: " + fileName);
+        } catch (IOException e) {
+            System.err.println("Failed to write step timings: " + e.getMessage());
+        }
+    }
+
+    private static class StepStats {
+        final LatencyHistogram overall = new LatencyHistogram();
+        final Map<String, LatencyHistogram> byDisease = new ConcurrentHashMap<>();
+        final Map<String, LatencyHistogram> byVariation = new ConcurrentHashMap<>();
+
+        JsonObject toJson() {
+            JsonObject json = overall.toJson();
+            json.add("byDisease", toJson(byDisease));
+            json.add("byVariation", toJson(byVariation));
+            return json;
+        }
+
+        private static JsonObject toJson(Map<String, LatencyHistogram> histograms) {
+            JsonObject json = new JsonObject();
+            new TreeMap<>(histograms).forEach((key, histogram) -> json.add(key, histogram.toJson()));
+            return json;
+        }
+    }
+}
@@ -1,15 +1,29 @@
 package com.aysa.automation.utils;
 
 import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Explicit waits and scoped implicit-wait control.
+ *
+ * Explicit waits run with the implicit wait disabled, so their timeout is the
+ * real budget and a poll never blocks on the session's implicit timeout.
+ * Existence checks use {@link #probe(Supplier)} / {@link #isPresent(By)}, which
+ * return immediately when nothing matches.
+ */
 public class WaitUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(WaitUtils.class);
@@ -17,6 +31,10 @@ public class WaitUtils {
     private final AndroidDriver driver;
     private final WebDriverWait wait;
     private static final int DEFAULT_TIMEOUT = 30;
+    private static final long HIERARCHY_POLL_MILLIS = 250;
+
+    // Last implicit wait sent per session, so unchanged values aren't re-sent
+    private static final Map<SessionId, Duration> implicitWaits = new ConcurrentHashMap<>();
 
     public WaitUtils(AndroidDriver driver) {
         this.driver = driver;
@@ -28,10 +46,64 @@ public class WaitUtils {
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
     }
 
+    /**
+     * Sets the session's implicit wait, skipping the remote call if it already has that value.
+     */
+    public static void setImplicitWait(AndroidDriver driver, Duration timeout) {
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId != null && timeout.equals(implicitWaits.get(sessionId))) {
+            return;
+        }
+        driver.manage().timeouts().implicitlyWait(timeout);
+        if (sessionId != null) {
+            implicitWaits.put(sessionId, timeout);
+        }
+    }
+
+    /**
+     * Forgets the implicit wait recorded for a session that is about to be quit.
+     */
+    public static void forget(AndroidDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId != null) {
+            implicitWaits.remove(sessionId);
+        }
+    }
+
+    /**
+     * Runs an action with the given implicit wait, restoring the previous value afterwards.
+     */
+    public <T> T withImplicitWait(Duration timeout, Supplier<T> action) {
+        SessionId sessionId = driver.getSessionId();
+        Duration previous = sessionId != null ? implicitWaits.get(sessionId) : null;
+        setImplicitWait(driver, timeout);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                setImplicitWait(driver, previous);
+            }
+        }
+    }
+
+    /**
+     * Runs an action with the implicit wait disabled, for absence checks and explicit waits.
+     */
+    public <T> T probe(Supplier<T> action) {
+        return withImplicitWait(Duration.ZERO, action);
+    }
+
+    /**
+     * Returns immediately whether anything currently matches the locator.
+     */
+    public boolean isPresent(By locator) {
+        return probe(() -> !driver.findElements(locator).isEmpty());
+    }
+
     public WebElement waitForElementToBeVisible(WebElement element) {
         logger.debug("Waiting for element to be visible");
         try {
-            return wait.until(ExpectedConditions.visibilityOf(element));
+            return probe(() -> wait.until(ExpectedConditions.visibilityOf(element)));
         } catch (TimeoutException e) {
             logger.error("Element not visible within timeout");
             throw e;
@@ -41,7 +113,7 @@ public class WaitUtils {
     public WebElement waitForElementToBeClickable(WebElement element) {
         logger.debug("Waiting for element to be clickable");
         try {
-            return wait.until(ExpectedConditions.elementToBeClickable(element));
+            return probe(() -> wait.until(ExpectedConditions.elementToBeClickable(element)));
         } catch (TimeoutException e) {
             logger.error("Element not clickable within timeout");
             throw e;
@@ -51,7 +123,7 @@ public class WaitUtils {
     public boolean waitForElementToDisappear(WebElement element) {
         logger.debug("Waiting for element to disappear");
         try {
-            return wait.until(ExpectedConditions.invisibilityOf(element));
+            return probe(() -> wait.until(ExpectedConditions.invisibilityOf(element)));
         } catch (TimeoutException e) {
             logger.error("Element still visible after timeout");
             return false;
@@ -61,13 +133,105 @@ public class WaitUtils {
     public boolean waitForTextToBePresent(WebElement element, String text) {
         logger.debug("Waiting for text '{}' to be present", text);
         try {
-            return wait.until(ExpectedConditions.textToBePresentInElement(element, text));
+            return probe(() -> wait.until(ExpectedConditions.textToBePresentInElement(element, text)));
         } catch (TimeoutException e) {
             logger.error("Text not present within timeout");
             return false;
         }
     }
 
+    public WebElement waitForElementToBeClickable(WebElement element, Duration timeout) {
+        logger.debug("Waiting up to {}s for element to be clickable", timeout.getSeconds());
+        try {
+            return probe(() -> new WebDriverWait(driver, timeout)
+                    .until(ExpectedConditions.elementToBeClickable(element)));
+        } catch (TimeoutException e) {
+            logger.error("Element not clickable within {}s", timeout.getSeconds());
+            throw e;
+        }
+    }
+
+    public WebElement waitForElementToBeClickable(By locator, Duration timeout) {
+        logger.debug("Waiting up to {}s for {} to be clickable", timeout.getSeconds(), locator);
+        try {
+            return probe(() -> new WebDriverWait(driver, timeout)
+                    .until(ExpectedConditions.elementToBeClickable(locator)));
+        } catch (TimeoutException e) {
+            logger.error("{} not clickable within {}s", locator, timeout.getSeconds());
+            throw e;
+        }
+    }
+
+    public WebElement waitForPresence(By locator, Duration timeout) {
+        logger.debug("Waiting up to {}s for {} to be present", timeout.getSeconds(), locator);
+        try {
+            return probe(() -> new WebDriverWait(driver, timeout)
+                    .until(ExpectedConditions.presenceOfElementLocated(locator)));
+        } catch (TimeoutException e) {
+            logger.error("{} not present within {}s", locator, timeout.getSeconds());
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until any of the locators is present, e.g. a results list or an error message.
+     */
+    public boolean waitForAnyPresent(Duration timeout, By... locators) {
+        logger.debug("Waiting up to {}s for any of {} locators", timeout.getSeconds(), locators.length);
+        try {
+            ExpectedCondition<?>[] conditions = new ExpectedCondition<?>[locators.length];
+            for (int i = 0; i < locators.length; i++) {
+                conditions[i] = ExpectedConditions.presenceOfElementLocated(locators[i]);
+            }
+            return probe(() -> new WebDriverWait(driver, timeout).until(ExpectedConditions.or(conditions)));
+        } catch (TimeoutException e) {
+            logger.warn("None of the expected elements appeared within {}s", timeout.getSeconds());
+            return false;
+        }
+    }
+
+    /**
+     * Waits until two consecutive hierarchy dumps are identical, i.e. animations
+     * and list population have settled.
+     */
+    public boolean waitForHierarchyStable(Duration timeout) {
+        return waitForStableHierarchySource(timeout) != null;
+    }
+
+    /**
+     * Like {@link #waitForHierarchyStable(Duration)}, but returns the settled page
+     * source so callers can inspect it without fetching it again. Returns null on timeout.
+     */
+    public String waitForStableHierarchySource(Duration timeout) {
+        long endTime = System.currentTimeMillis() + timeout.toMillis();
+        String previous = driver.getPageSource();
+
+        while (System.currentTimeMillis() < endTime) {
+            sleep(HIERARCHY_POLL_MILLIS);
+            String current = driver.getPageSource();
+            if (current.equals(previous)) {
+                return current;
+            }
+            previous = current;
+        }
+
+        logger.warn("UI hierarchy still changing after {}s", timeout.getSeconds());
+        return null;
+    }
+
+    /**
+     * Waits until the hierarchy differs from a dump taken before an action,
+     * i.e. the app has started reacting to it.
+     */
+    public boolean waitForHierarchyChange(String before, Duration timeout) {
+        boolean changed = waitUntil(() -> !driver.getPageSource().equals(before),
+                (int) timeout.getSeconds(), HIERARCHY_POLL_MILLIS);
+        if (!changed) {
+            logger.warn("UI hierarchy did not change within {}s", timeout.getSeconds());
+        }
+        return changed;
+    }
+
     public static void sleep(long milliseconds) {
         try {
             Thread.sleep(milliseconds);